@@ -0,0 +1,92 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.engine.ChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decoding of a batch as done by `handleBatch`, and the per event conversions used by the writers.
+ *
+ * @author Ismail Simsek
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+  @Param({"1000"})
+  int batchSize;
+  @Param({"tree", "streaming"})
+  String decoderType;
+
+  List<ChangeEvent<Object, Object>> records;
+  List<JdbcChangeEvent> events;
+  ChangeEventDecoder decoder;
+
+  @Setup
+  public void setup() {
+    records = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      records.add(SyntheticEventBuilder.customer(i, "u", i).buildChangeEvent());
+    }
+    SchemaRegistry schemaRegistry = new SchemaRegistry(1000);
+    decoder = "streaming".equals(decoderType) ? new StreamingChangeEventDecoder(schemaRegistry) :
+        new ChangeEventDecoder(schemaRegistry);
+    // events as the writers receive them from the decoder
+    events = records.stream().map(decoder::decode).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public Map<String, List<JdbcChangeEvent>> decodeAndGroup() {
+    return records.stream()
+        .map(decoder::decode)
+        .collect(Collectors.groupingBy(JdbcChangeEvent::destination));
+  }
+
+  @Benchmark
+  public void valueAsMap(Blackhole blackhole) {
+    for (JdbcChangeEvent event : events) {
+      blackhole.consume(event.valueAsMap());
+    }
+  }
+
+  /**
+   * Schema fields of each event built from the schema json, as done for every schema not found in the registry.
+   */
+  @Benchmark
+  public void valueSchemaFields(Blackhole blackhole) {
+    for (JdbcChangeEvent event : events) {
+      blackhole.consume(new JdbcChangeEvent.Schema(event.schema().valueSchema(), event.schema().keySchema())
+          .valueSchemaFields());
+    }
+  }
+
+}
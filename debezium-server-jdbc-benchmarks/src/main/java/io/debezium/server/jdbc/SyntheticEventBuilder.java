@@ -0,0 +1,159 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.engine.ChangeEvent;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Builds synthetic change events for the benchmarks, either decoded or serialized as the json envelope received from
+ * the engine. Schemas are derived from the field values like the test event builder does.
+ *
+ * @author Ismail Simsek
+ */
+public class SyntheticEventBuilder {
+
+  ObjectNode payload = JsonNodeFactory.instance.objectNode();
+  ObjectNode keyPayload = JsonNodeFactory.instance.objectNode();
+  String destination = "test";
+
+  /**
+   * @return builder of a flattened customer row with the given key, having few columns of each type
+   */
+  public static SyntheticEventBuilder customer(long id, String operation, long sourceTsMs) {
+    return new SyntheticEventBuilder()
+        .destination("testc.inventory.customers")
+        .addKeyField("id", id)
+        .addField("first_name", "first name " + id)
+        .addField("last_name", "last name " + id)
+        .addField("email", "customer" + id + "@example.com")
+        .addField("age", (int) (id % 90))
+        .addField("balance", id * 1.5)
+        .addField("active", id % 2 == 0)
+        .addField("__op", operation)
+        .addField("__source_ts_ms", sourceTsMs)
+        .addField("__deleted", "d".equals(operation));
+  }
+
+  public SyntheticEventBuilder destination(String destination) {
+    this.destination = destination;
+    return this;
+  }
+
+  public SyntheticEventBuilder addField(String name, int val) {
+    payload.put(name, val);
+    return this;
+  }
+
+  public SyntheticEventBuilder addField(String name, long val) {
+    payload.put(name, val);
+    return this;
+  }
+
+  public SyntheticEventBuilder addField(String name, double val) {
+    payload.put(name, val);
+    return this;
+  }
+
+  public SyntheticEventBuilder addField(String name, boolean val) {
+    payload.put(name, val);
+    return this;
+  }
+
+  public SyntheticEventBuilder addField(String name, String val) {
+    payload.put(name, val);
+    return this;
+  }
+
+  public SyntheticEventBuilder addKeyField(String name, long val) {
+    keyPayload.put(name, val);
+    payload.put(name, val);
+    return this;
+  }
+
+  public SyntheticEventBuilder addKeyField(String name, String val) {
+    keyPayload.put(name, val);
+    payload.put(name, val);
+    return this;
+  }
+
+  public JdbcChangeEvent build() {
+    return new JdbcChangeEvent(destination, payload, keyPayload, schema(payload), schema(keyPayload));
+  }
+
+  /**
+   * @return event serialized as json envelope with schema and payload, as the engine delivers it
+   */
+  public ChangeEvent<Object, Object> buildChangeEvent() {
+    final String key = envelope(schema(keyPayload), keyPayload);
+    final String value = envelope(schema(payload), payload);
+    final String eventDestination = destination;
+    return new ChangeEvent<>() {
+      @Override
+      public Object key() {
+        return key;
+      }
+
+      @Override
+      public Object value() {
+        return value;
+      }
+
+      @Override
+      public String destination() {
+        return eventDestination;
+      }
+    };
+  }
+
+  private static String envelope(JsonNode schema, JsonNode payload) {
+    ObjectNode envelope = JsonNodeFactory.instance.objectNode();
+    envelope.set("schema", schema);
+    envelope.set("payload", payload);
+    return envelope.toString();
+  }
+
+  private ObjectNode schema(ObjectNode node) {
+    ArrayNode fields = JsonNodeFactory.instance.arrayNode();
+    Iterator<Map.Entry<String, JsonNode>> iter = node.fields();
+    while (iter.hasNext()) {
+      Map.Entry<String, JsonNode> field = iter.next();
+      ObjectNode schemaField = JsonNodeFactory.instance.objectNode();
+      if (field.getValue().isInt()) {
+        schemaField.put("type", "int32");
+      } else if (field.getValue().isLong()) {
+        schemaField.put("type", "int64");
+      } else if (field.getValue().isBoolean()) {
+        schemaField.put("type", "boolean");
+      } else if (field.getValue().isDouble()) {
+        schemaField.put("type", "float64");
+      } else {
+        schemaField.put("type", "string");
+      }
+      schemaField.put("optional", !keyPayload.has(field.getKey()));
+      schemaField.put("field", field.getKey());
+      fields.add(schemaField);
+    }
+    if (fields.isEmpty()) {
+      return null;
+    }
+    ObjectNode schema = JsonNodeFactory.instance.objectNode();
+    schema.put("type", "struct");
+    schema.set("fields", fields);
+    return schema;
+  }
+
+}
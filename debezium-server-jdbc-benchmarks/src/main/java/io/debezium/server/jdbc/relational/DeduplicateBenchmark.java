@@ -0,0 +1,85 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.SyntheticEventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deduplication of upsert batches, `UpsertTableWriter.deduplicateBatch`, with different duplicate rates and key skews.
+ * Duplicates update a key seen before in the batch, chosen uniformly or from the hottest 1% of the keys.
+ *
+ * @author Ismail Simsek
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeduplicateBenchmark {
+
+  @Param({"10000"})
+  int batchSize;
+  @Param({"0.0", "0.5", "0.9"})
+  double duplicateRate;
+  @Param({"uniform", "hot"})
+  String keySkew;
+  @Param({"long", "composite"})
+  String keyType;
+
+  List<JdbcChangeEvent> events;
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(42);
+    events = new ArrayList<>(batchSize);
+    int keys = 0;
+    for (int i = 0; i < batchSize; i++) {
+      final long key;
+      final String operation;
+      if (keys > 0 && random.nextDouble() < duplicateRate) {
+        final int bound = "hot".equals(keySkew) ? Math.max(1, keys / 100) : keys;
+        key = random.nextInt(bound);
+        operation = random.nextInt(10) == 0 ? "d" : "u";
+      } else {
+        key = keys++;
+        operation = "c";
+      }
+      SyntheticEventBuilder builder = SyntheticEventBuilder.customer(key, operation, i);
+      if ("composite".equals(keyType)) {
+        builder.addKeyField("tenant", "tenant-" + key % 16);
+      }
+      events.add(builder.build());
+    }
+  }
+
+  @Benchmark
+  public List<JdbcChangeEvent> deduplicate() {
+    return EventDeduplicator.deduplicate(events);
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import java.sql.JDBCType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the insert statement of a table, `RelationalTable.preparedInsertStatement`. Statements are cached by the
+ * table, uncached benchmark builds them for a new table, including creating the table object.
+ *
+ * @author Ismail Simsek
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementBenchmark {
+
+  @Param({"10", "100"})
+  int columnCount;
+
+  Map<String, JDBCType> columns;
+  Map<String, Integer> primaryKeys;
+  RelationalTable table;
+
+  @Setup
+  public void setup() {
+    columns = new LinkedHashMap<>();
+    for (int i = 0; i < columnCount; i++) {
+      columns.put("column_" + i, i % 2 == 0 ? JDBCType.BIGINT : JDBCType.VARCHAR);
+    }
+    primaryKeys = Map.of("column_0", 1);
+    table = new RelationalTable("inventory", "customers", columns, primaryKeys);
+  }
+
+  @Benchmark
+  public String preparedInsertStatement() {
+    return new RelationalTable("inventory", "customers", columns, primaryKeys).preparedInsertStatement("\"");
+  }
+
+  @Benchmark
+  public String preparedInsertStatementCached() {
+    return table.preparedInsertStatement("\"");
+  }
+
+}
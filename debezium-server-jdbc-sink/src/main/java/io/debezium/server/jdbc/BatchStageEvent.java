@@ -0,0 +1,65 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of a stage of writing a batch, like decode, dedup, delete, insert or commit. Events are
+ * recorded only while a recording with the event enabled is running, for example
+ * `jcmd <pid> JFR.start settings=profile`, otherwise creating and committing them costs close to nothing.
+ *
+ * @author Ismail Simsek
+ */
+@Name("io.debezium.server.jdbc.BatchStage")
+@Label("Batch Stage")
+@Category({"Debezium", "JDBC Sink"})
+@Description("Stage of writing a batch of change events")
+@StackTrace(false)
+public class BatchStageEvent extends Event {
+
+  @Label("Stage")
+  String stage;
+  @Label("Table")
+  String table;
+  @Label("Rows")
+  int rows;
+  @Label("Size")
+  @DataAmount
+  long bytes;
+
+  /**
+   * Starts the event of a stage.
+   *
+   * @param table destination table, null for stages of the whole batch
+   * @param rows  number of rows or records handled by the stage
+   */
+  public static BatchStageEvent start(String stage, String table, int rows) {
+    BatchStageEvent event = new BatchStageEvent();
+    if (event.isEnabled()) {
+      event.stage = stage;
+      event.table = table;
+      event.rows = rows;
+      event.begin();
+    }
+    return event;
+  }
+
+  public BatchStageEvent bytes(long bytes) {
+    this.bytes = bytes;
+    return this;
+  }
+
+}
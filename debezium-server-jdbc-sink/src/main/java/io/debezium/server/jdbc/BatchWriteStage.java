@@ -0,0 +1,138 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write stage of pipelined mode. Submitted batches are written by a single thread in submit order, while the engine
+ * thread decodes the next batch. Bounded queue blocks the submitter when writes fall behind. When a write fails the
+ * stage stops, pending batches are dropped without marking their offsets, the failure listener is notified right away
+ * and the failure is thrown to the submitter.
+ *
+ * @author Ismail Simsek
+ */
+public class BatchWriteStage implements AutoCloseable {
+  protected static final Logger LOGGER = LoggerFactory.getLogger(BatchWriteStage.class);
+  static final long POLL_INTERVAL_MS = 100;
+  static final long CLOSE_TIMEOUT_MS = 30000;
+
+  private final BlockingQueue<BatchWrite> queue;
+  private final Thread thread;
+  private final long closeTimeoutMs;
+  private final Consumer<Throwable> failureListener;
+  private volatile boolean running = true;
+  private volatile boolean closed;
+  private volatile Throwable failure;
+
+  public BatchWriteStage(int queueSize) {
+    this(queueSize, CLOSE_TIMEOUT_MS, e -> {
+    });
+  }
+
+  /**
+   * @param closeTimeoutMs  maximum time to wait for queued batches when closing, before interrupting the write
+   * @param failureListener called on the write thread when a write fails
+   */
+  public BatchWriteStage(int queueSize, long closeTimeoutMs, Consumer<Throwable> failureListener) {
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.closeTimeoutMs = closeTimeoutMs;
+    this.failureListener = failureListener;
+    this.thread = new Thread(this::run, "jdbc-batch-writer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Queues the batch, blocks while the queue is full.
+   */
+  public void submit(BatchWrite write) throws InterruptedException {
+    checkFailure();
+    while (!queue.offer(write, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+      checkFailure();
+    }
+  }
+
+  public int pending() {
+    return queue.size();
+  }
+
+  /**
+   * Throws the failure of the write stage, if any.
+   */
+  public void checkFailure() {
+    if (failure != null) {
+      throw new DebeziumException("Batch write failed, stopping the consumer", failure);
+    }
+    if (!running || closed) {
+      throw new DebeziumException("Batch write stage is closed");
+    }
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        BatchWrite write = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (write != null) {
+          write.write();
+        } else if (closed) {
+          // queue drained
+          running = false;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        running = false;
+      } catch (Throwable e) {
+        LOGGER.error("Batch write failed, {} pending batches are dropped", queue.size(), e);
+        failure = e;
+        running = false;
+        queue.clear();
+        try {
+          failureListener.accept(e);
+        } catch (RuntimeException le) {
+          LOGGER.warn("Batch write failure listener failed", le);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops accepting batches and waits for the queued batches to be written, write in progress is interrupted only
+   * when they are not written within the close timeout.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      thread.join(Math.max(1, closeTimeoutMs));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      LOGGER.warn("Batch write stage didn't complete in {}ms, interrupting it, {} pending batches are dropped",
+          closeTimeoutMs, queue.size());
+      running = false;
+      thread.interrupt();
+    }
+  }
+
+  @FunctionalInterface
+  public interface BatchWrite {
+    void write() throws InterruptedException;
+  }
+
+}
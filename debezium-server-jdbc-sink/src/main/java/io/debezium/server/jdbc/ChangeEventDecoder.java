@@ -0,0 +1,149 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Decodes debezium json change events to {@link JdbcChangeEvent}. Key and value envelopes are parsed exactly once, the
+ * payload is read as tree while the schema is only located in the event text and parsed the first time it's seen, see
+ * {@link SchemaRegistry}.
+ *
+ * @author Ismail Simsek
+ */
+public class ChangeEventDecoder {
+
+  static final String PAYLOAD_FIELD = "payload";
+  static final String SCHEMA_FIELD = "schema";
+  static final String SOURCE_FIELD = "source";
+  static final String AFTER_FIELD = "after";
+  final SchemaRegistry schemaRegistry;
+
+  public ChangeEventDecoder(SchemaRegistry schemaRegistry) {
+    this.schemaRegistry = schemaRegistry;
+  }
+
+  public JdbcChangeEvent decode(ChangeEvent<Object, Object> e) {
+    try {
+      final Envelope value = readEnvelope(e.value());
+      final Envelope key = readEnvelope(e.key());
+      return new JdbcChangeEvent(e.destination(), value.payload, key.payload,
+          schemaRegistry.intern(value.schema, key.schema));
+    } catch (IOException ex) {
+      throw new DebeziumException(ex);
+    }
+  }
+
+  /**
+   * Reads schema and payload fields of the envelope. Events which are not enveloped, or have other fields, are read as
+   * tree like {@code DebeziumSerdes.payloadJson} deserializer does.
+   */
+  protected Envelope readEnvelope(Object data) throws IOException {
+    if (data == null) {
+      return Envelope.EMPTY;
+    }
+    SchemaRegistry.RawSchema schema = null;
+    JsonNode payload = null;
+    try (JsonParser parser = createParser(data)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return treeEnvelope(readTree(data));
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String field = parser.getCurrentName();
+        parser.nextToken();
+        if (SCHEMA_FIELD.equals(field)) {
+          schema = SchemaRegistry.RawSchema.read(data, parser);
+        } else if (PAYLOAD_FIELD.equals(field)) {
+          payload = parser.readValueAsTree();
+        } else {
+          return treeEnvelope(readTree(data));
+        }
+      }
+    }
+    if (payload == null) {
+      return treeEnvelope(readTree(data));
+    }
+    return new Envelope(schema, unwrap(payload));
+  }
+
+  private Envelope treeEnvelope(JsonNode envelope) {
+    final JsonNode schema = schema(envelope);
+    return new Envelope(schema == null || schema.isNull() ? null : SchemaRegistry.RawSchema.of(schema.toString()),
+        payload(envelope));
+  }
+
+  /**
+   * Parses the envelope directly from the String or byte[] received from the engine, avoiding the String->byte[] copy.
+   */
+  protected JsonNode readTree(Object data) throws IOException {
+    if (data == null) {
+      return null;
+    }
+    if (data instanceof String) {
+      return JdbcChangeConsumer.mapper.readTree((String) data);
+    }
+    if (data instanceof byte[]) {
+      return JdbcChangeConsumer.mapper.readTree((byte[]) data);
+    }
+    throw new DebeziumException("Unexpected data type '" + data.getClass() + "'");
+  }
+
+  protected JsonParser createParser(Object data) throws IOException {
+    if (data instanceof String) {
+      return JdbcChangeConsumer.mapper.getFactory().createParser((String) data);
+    }
+    if (data instanceof byte[]) {
+      return JdbcChangeConsumer.mapper.getFactory().createParser((byte[]) data);
+    }
+    throw new DebeziumException("Unexpected data type '" + (data == null ? null : data.getClass()) + "'");
+  }
+
+  /**
+   * Extracts payload from the envelope, same as {@code DebeziumSerdes.payloadJson} deserializer does.
+   */
+  protected JsonNode payload(JsonNode envelope) {
+    if (envelope == null) {
+      return null;
+    }
+    return unwrap(envelope.has(PAYLOAD_FIELD) ? envelope.get(PAYLOAD_FIELD) : envelope);
+  }
+
+  /**
+   * Not flattened debezium event, use `after` state.
+   */
+  protected JsonNode unwrap(JsonNode node) {
+    if (node.has(SOURCE_FIELD) && node.has(AFTER_FIELD)) {
+      return node.get(AFTER_FIELD);
+    }
+    return node;
+  }
+
+  protected JsonNode schema(JsonNode envelope) {
+    return envelope == null ? null : envelope.get(SCHEMA_FIELD);
+  }
+
+  protected static final class Envelope {
+    static final Envelope EMPTY = new Envelope(null, null);
+    final SchemaRegistry.RawSchema schema;
+    final JsonNode payload;
+
+    Envelope(SchemaRegistry.RawSchema schema, JsonNode payload) {
+      this.schema = schema;
+      this.payload = payload;
+    }
+  }
+
+}
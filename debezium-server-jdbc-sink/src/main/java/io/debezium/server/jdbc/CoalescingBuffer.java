@@ -0,0 +1,192 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.server.jdbc.relational.UpsertTableWriter;
+import io.debezium.util.Clock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Keeps decoded events of several engine batches in memory per destination and flushes a destination when it reaches
+ * a row count, a payload size or a maximum age. Events of destinations written in upsert mode are deduplicated by key
+ * with the same rules as {@link UpsertTableWriter}, latest event by source timestamp and operation wins.
+ * <p>
+ * Engine batches are tracked in arrival order, a batch is completed once all its destinations are flushed and batches
+ * are completed strictly in order, so offsets are never committed for events which are still in the buffer.
+ *
+ * @param <B> engine batch, returned by {@link #flushed(Collection)} when all its events are flushed
+ * @author Ismail Simsek
+ */
+public class CoalescingBuffer<B> {
+
+  final int maxRows;
+  final long maxBytes;
+  final long maxAgeMs;
+  private final Clock clock;
+  private final Map<String, DestinationBuffer> destinations = new LinkedHashMap<>();
+  private final Deque<PendingBatch<B>> batches = new ArrayDeque<>();
+
+  /**
+   * @param maxRows  destination is flushed when it has this many rows
+   * @param maxBytes destination is flushed when payload size of events added since its last flush reaches this
+   * @param maxAgeMs destination is flushed when its oldest event was added this long ago
+   */
+  public CoalescingBuffer(int maxRows, long maxBytes, long maxAgeMs, Clock clock) {
+    this.maxRows = maxRows;
+    this.maxBytes = maxBytes;
+    this.maxAgeMs = maxAgeMs;
+    this.clock = clock;
+  }
+
+  /**
+   * Destinations having buffered events with a different schema than the given events, they need to be flushed
+   * before adding the events.
+   */
+  public synchronized Set<String> schemaChanged(Map<String, List<JdbcChangeEvent>> events) {
+    Set<String> changed = new HashSet<>();
+    events.forEach((destination, destinationEvents) -> {
+      final DestinationBuffer buffer = destinations.get(destination);
+      if (buffer != null && !buffer.schema.equals(destinationEvents.get(0).schema())) {
+        changed.add(destination);
+      }
+    });
+    return changed;
+  }
+
+  /**
+   * Adds events of an engine batch.
+   *
+   * @param events      events grouped by destination, in source order
+   * @param bytes       payload size of the events by destination
+   * @param deduplicate destinations which are deduplicated by event key
+   */
+  public synchronized void add(B batch, Map<String, List<JdbcChangeEvent>> events, Map<String, Long> bytes,
+                               Predicate<String> deduplicate) {
+    events.forEach((destination, destinationEvents) -> {
+      DestinationBuffer buffer = destinations.computeIfAbsent(destination,
+          d -> new DestinationBuffer(destinationEvents.get(0).schema(), deduplicate.test(d), clock.currentTimeInMillis()));
+      destinationEvents.forEach(buffer::add);
+      buffer.bytes += bytes.getOrDefault(destination, 0L);
+    });
+    batches.add(new PendingBatch<>(batch, new HashSet<>(events.keySet())));
+  }
+
+  /**
+   * @param all returns all buffered destinations
+   * @return destinations reaching their row count, payload size or age limit
+   */
+  public synchronized Set<String> ready(boolean all) {
+    final long now = clock.currentTimeInMillis();
+    Set<String> ready = new HashSet<>();
+    destinations.forEach((destination, buffer) -> {
+      if (all || buffer.rows() >= maxRows || buffer.bytes >= maxBytes || now - buffer.createdMs >= maxAgeMs) {
+        ready.add(destination);
+      }
+    });
+    return ready;
+  }
+
+  /**
+   * Removes events of the destinations from the buffer, {@link #flushed(Collection)} must be called after they're
+   * written.
+   */
+  public synchronized Map<String, List<JdbcChangeEvent>> take(Collection<String> flush) {
+    Map<String, List<JdbcChangeEvent>> events = new LinkedHashMap<>();
+    for (String destination : flush) {
+      final DestinationBuffer buffer = destinations.remove(destination);
+      if (buffer != null) {
+        events.put(destination, buffer.events());
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Marks destinations as written.
+   *
+   * @return completed batches in arrival order
+   */
+  public synchronized List<B> flushed(Collection<String> flushed) {
+    for (PendingBatch<B> batch : batches) {
+      batch.destinations.removeAll(flushed);
+    }
+    List<B> completed = new ArrayList<>();
+    while (!batches.isEmpty() && batches.peek().destinations.isEmpty()) {
+      completed.add(batches.poll().batch);
+    }
+    return completed;
+  }
+
+  public synchronized int rows() {
+    return destinations.values().stream().mapToInt(DestinationBuffer::rows).sum();
+  }
+
+  public synchronized int pendingBatches() {
+    return batches.size();
+  }
+
+  private static final class DestinationBuffer {
+    final JdbcChangeEvent.Schema schema;
+    final long createdMs;
+    final Map<JsonNode, JdbcChangeEvent> keyed;
+    final List<JdbcChangeEvent> appended = new ArrayList<>();
+    long bytes;
+
+    DestinationBuffer(JdbcChangeEvent.Schema schema, boolean deduplicate, long createdMs) {
+      this.schema = schema;
+      this.createdMs = createdMs;
+      this.keyed = deduplicate ? new LinkedHashMap<>() : null;
+    }
+
+    void add(JdbcChangeEvent event) {
+      if (keyed == null || event.key() == null) {
+        appended.add(event);
+        return;
+      }
+      keyed.merge(event.key(), event,
+          (oldValue, newValue) -> UpsertTableWriter.compareByTsThenOp(oldValue, newValue) <= 0 ? newValue : oldValue);
+    }
+
+    int rows() {
+      return appended.size() + (keyed == null ? 0 : keyed.size());
+    }
+
+    List<JdbcChangeEvent> events() {
+      if (keyed == null) {
+        return appended;
+      }
+      List<JdbcChangeEvent> events = new ArrayList<>(keyed.values());
+      events.addAll(appended);
+      return events;
+    }
+  }
+
+  private static final class PendingBatch<B> {
+    final B batch;
+    final Set<String> destinations;
+
+    PendingBatch(B batch, Set<String> destinations) {
+      this.batch = batch;
+      this.destinations = destinations;
+    }
+  }
+
+}
@@ -12,37 +12,49 @@ import io.debezium.DebeziumException;
 import io.debezium.engine.ChangeEvent;
 import io.debezium.engine.DebeziumEngine;
 import io.debezium.engine.format.Json;
-import io.debezium.serde.DebeziumSerdes;
 import io.debezium.server.BaseChangeConsumer;
 import io.debezium.server.jdbc.batchsizewait.InterfaceBatchSizeWait;
 import io.debezium.server.jdbc.jdbi.ArrayListCodec;
 import io.debezium.server.jdbc.jdbi.LinkedHashMapCodec;
 import io.debezium.server.jdbc.relational.BaseTableWriter;
+import io.debezium.server.jdbc.relational.JdbcDialect;
 import io.debezium.server.jdbc.relational.RelationalTable;
+import io.debezium.server.jdbc.relational.RelationalTableCache;
+import io.debezium.server.jdbc.relational.SnapshotTableWriter;
 import io.debezium.server.jdbc.relational.TableNotFoundException;
 import io.debezium.server.jdbc.relational.TableWriterFactory;
+import io.debezium.server.jdbc.relational.UpsertTableWriter;
 import io.debezium.util.Clock;
 import io.debezium.util.Strings;
 import io.debezium.util.Threads;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.Dependent;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.BasicDataSourceFactory;
-import org.apache.kafka.common.serialization.Deserializer;
-import org.apache.kafka.common.serialization.Serde;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jdbi.v3.core.Handle;
@@ -62,16 +74,16 @@ import org.slf4j.LoggerFactory;
 public class JdbcChangeConsumer extends BaseChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> {
 
   protected static final Duration LOG_INTERVAL = Duration.ofMinutes(15);
+  protected static final long BUFFER_CLOSE_TIMEOUT_MS = 30000;
   public static final ObjectMapper mapper = new ObjectMapper();
-  protected static final Serde<JsonNode> valSerde = DebeziumSerdes.payloadJson(JsonNode.class);
-  protected static final Serde<JsonNode> keySerde = DebeziumSerdes.payloadJson(JsonNode.class);
   private static final Logger LOGGER = LoggerFactory.getLogger(JdbcChangeConsumer.class);
-  static Deserializer<JsonNode> valDeserializer;
-  static Deserializer<JsonNode> keyDeserializer;
   protected final Clock clock = Clock.system();
-  protected long consumerStart = clock.currentTimeInMillis();
-  protected long numConsumedEvents = 0;
-  protected Threads.Timer logTimer = Threads.timer(clock, LOG_INTERVAL);
+  // updated by the engine thread and the write stage or buffer flush threads
+  protected volatile long consumerStart = clock.currentTimeInMillis();
+  protected final AtomicLong numConsumedEvents = new AtomicLong();
+  protected final AtomicLong decodeTimeMs = new AtomicLong();
+  protected final AtomicLong writeTimeMs = new AtomicLong();
+  protected volatile Threads.Timer logTimer = Threads.timer(clock, LOG_INTERVAL);
   @ConfigProperty(name = "debezium.sink.jdbc.destination-regexp", defaultValue = "")
   protected Optional<String> destinationRegexp;
   @ConfigProperty(name = "debezium.sink.jdbc.destination-regexp-replace", defaultValue = "")
@@ -94,6 +106,14 @@ public class JdbcChangeConsumer extends BaseChangeConsumer implements DebeziumEn
   @Inject
   TableWriterFactory tableWriterFactory;
   BaseTableWriter tableWriter;
+  SnapshotTableWriter snapshotWriter;
+  // snapshot load is completed once with the first batch read after the snapshot, or after start for left over indexes
+  final AtomicBoolean snapshotCompletePending = new AtomicBoolean(true);
+  @Inject
+  DebeziumMetrics dbzMetrics;
+  @Inject
+  SinkMetrics sinkMetrics;
+  ChangeEventDecoder decoder;
   @ConfigProperty(name = "debezium.sink.jdbc.database.schema", defaultValue = "debezium")
   String targetSchema;
   @ConfigProperty(name = "debezium.sink.jdbc.database.url")
@@ -105,6 +125,53 @@ public class JdbcChangeConsumer extends BaseChangeConsumer implements DebeziumEn
 
   @ConfigProperty(name = "debezium.sink.jdbc.upsert", defaultValue = "true")
   boolean upsert;
+  @ConfigProperty(name = "debezium.sink.jdbc.schema-cache.max-size", defaultValue = "1000")
+  long schemaCacheMaxSize;
+  @ConfigProperty(name = "debezium.sink.jdbc.streaming-decoder", defaultValue = "false")
+  boolean streamingDecoder;
+  @ConfigProperty(name = "debezium.sink.jdbc.decode-parallelism", defaultValue = "1")
+  int decodeParallelism;
+  ForkJoinPool decodePool;
+  @ConfigProperty(name = "debezium.sink.jdbc.table-cache.ttl-ms", defaultValue = "0")
+  long tableCacheTtlMs;
+  @ConfigProperty(name = "debezium.sink.jdbc.table-cache.preload", defaultValue = "false")
+  boolean tableCachePreload;
+  RelationalTableCache tableCache;
+  @ConfigProperty(name = "debezium.sink.jdbc.write-parallelism", defaultValue = "1")
+  int writeParallelism;
+  @ConfigProperty(name = "debezium.sink.jdbc.transaction-scope", defaultValue = "table")
+  String transactionScope;
+  boolean batchTransaction;
+  @ConfigProperty(name = "debezium.sink.jdbc.pipeline.enabled", defaultValue = "false")
+  boolean pipelineEnabled;
+  @ConfigProperty(name = "debezium.sink.jdbc.pipeline.queue-size", defaultValue = "2")
+  int pipelineQueueSize;
+  @ConfigProperty(name = "debezium.sink.jdbc.pipeline.close-timeout-ms", defaultValue = "30000")
+  long pipelineCloseTimeoutMs;
+  BatchWriteStage writeStage;
+  ExecutorService writePool;
+  @ConfigProperty(name = "debezium.sink.jdbc.buffer.enabled", defaultValue = "false")
+  boolean bufferEnabled;
+  @ConfigProperty(name = "debezium.sink.jdbc.buffer.max-rows", defaultValue = "10000")
+  int bufferMaxRows;
+  @ConfigProperty(name = "debezium.sink.jdbc.buffer.max-bytes", defaultValue = "67108864")
+  long bufferMaxBytes;
+  @ConfigProperty(name = "debezium.sink.jdbc.buffer.max-age-ms", defaultValue = "10000")
+  long bufferMaxAgeMs;
+  @ConfigProperty(name = "debezium.sink.jdbc.statement-cache.enabled", defaultValue = "false")
+  boolean statementCacheEnabled;
+  @ConfigProperty(name = "debezium.sink.jdbc.statement-cache.max-tables", defaultValue = "100")
+  int statementCacheMaxTables;
+  // distinct statements of a table: insert, delete, upsert, staging create, clear, load and merge, set delete and
+  // multi row statements of full and remainder sizes
+  @ConfigProperty(name = "debezium.sink.jdbc.statement-cache.statements-per-table", defaultValue = "16")
+  int statementCacheStatementsPerTable;
+  CoalescingBuffer<EngineBatch> buffer;
+  ScheduledExecutorService bufferTimer;
+  // batches flushed by the buffer timer, their offsets are marked by the engine thread
+  final Queue<EngineBatch> flushedBatches = new ConcurrentLinkedQueue<>();
+  // first failure of a write running outside of the engine thread, thrown with the next batch
+  volatile Throwable writeFailure;
 
   @PostConstruct
   void connect() throws Exception {
@@ -129,24 +196,176 @@ public class JdbcChangeConsumer extends BaseChangeConsumer implements DebeziumEn
     dataSource.setUrl(url);
     dataSource.setUsername(username);
     dataSource.setPassword(password);
+    if (statementCacheEnabled) {
+      // pooled connections keep their prepared statements between batches, oldest idle ones are closed when
+      // the limit is reached
+      final int maxStatements = statementCacheMaxTables * statementCacheStatementsPerTable;
+      LOGGER.info("Caching up to {} prepared statements per connection", maxStatements);
+      dataSource.setPoolPreparedStatements(true);
+      dataSource.setMaxOpenPreparedStatements(maxStatements);
+    }
 
-    jdbi = Jdbi.create(dataSource);
+    // connections are acquired through the metrics to track waits on the pool
+    jdbi = Jdbi.create(sinkMetrics.connectionFactory(dataSource));
+    sinkMetrics.registerGauges(dataSource);
     jdbi.registerCodecFactory(
         CodecFactory.forSingleCodec(QualifiedType.of(LinkedHashMap.class), new LinkedHashMapCodec()));
     jdbi.registerCodecFactory(
         CodecFactory.forSingleCodec(QualifiedType.of(ArrayList.class), new ArrayListCodec()));
 
-    tableWriter = tableWriterFactory.get(jdbi);
+    batchTransaction = "batch".equalsIgnoreCase(transactionScope.trim());
+    if (!batchTransaction && !"table".equalsIgnoreCase(transactionScope.trim())) {
+      throw new DebeziumException("debezium.sink.jdbc.transaction-scope={" + transactionScope + "} not supported! " +
+                                  "Supported values are {table,batch}!");
+    }
+    final JdbcDialect dialect = JdbcDialect.of(jdbi);
+    LOGGER.info("Using {} dialect", dialect);
+    tableWriter = tableWriterFactory.get(jdbi, dialect);
+    snapshotWriter = tableWriterFactory.getSnapshotWriter(jdbi, dialect, tableWriter);
+    if (snapshotWriter != null && batchTransaction) {
+      // emptiness checks and deferred indexes use their own connections, outside of the batch transaction
+      LOGGER.warn("Single transaction per batch is used, snapshot fast path is disabled.");
+      snapshotWriter = null;
+    }
+    if (snapshotWriter != null) {
+      // snapshot state of the source is read from debezium metrics
+      try {
+        dbzMetrics.initizalize();
+      } catch (DebeziumException e) {
+        throw new DebeziumException("`debezium.sink.jdbc.snapshot.fast-path` requires debezium metrics mbeans! " +
+                                    e.getMessage(), e);
+      }
+    }
+    SchemaRegistry schemaRegistry = new SchemaRegistry(schemaCacheMaxSize);
+    decoder = streamingDecoder ? new StreamingChangeEventDecoder(schemaRegistry) : new ChangeEventDecoder(schemaRegistry);
+    tableCache = new RelationalTableCache(tableCacheTtlMs, clock);
+    if (tableCachePreload) {
+      try (Handle handle = jdbi.open()) {
+        Map<String, RelationalTable> tables = RelationalTable.loadAll(targetSchema, handle.getConnection());
+        tables.values().forEach(tableCache::put);
+        LOGGER.info("Preloaded metadata of {} tables from schema {}", tables.size(), targetSchema);
+      }
+    }
+    if (decodeParallelism > 1) {
+      LOGGER.info("Using parallel decode with parallelism {}", decodeParallelism);
+      decodePool = new ForkJoinPool(decodeParallelism);
+    }
+    final int partitions = tableWriter instanceof UpsertTableWriter ? ((UpsertTableWriter) tableWriter).partitions() : 1;
+    if (batchTransaction && partitions > 1) {
+      // partitions are committed in their own transactions, the batch wouldn't be atomic
+      throw new DebeziumException("`debezium.sink.jdbc.upsert-partitions` greater than 1 is not supported with " +
+                                  "`debezium.sink.jdbc.transaction-scope=batch`!");
+    }
+    if (batchTransaction && writeParallelism > 1) {
+      LOGGER.warn("Single transaction per batch is used, write parallelism is disabled.");
+      writeParallelism = 1;
+    }
+    if (writeParallelism > 1) {
+      // each writer holds a connection while writing its table
+      if (dataSource.getMaxTotal() > 0 && writeParallelism > dataSource.getMaxTotal()) {
+        LOGGER.warn("Write parallelism {} exceeds maximum number of connections {} of the connection pool, using {}." +
+                    " Set debezium.sink.jdbc.database.param.maxTotal to increase it.", writeParallelism,
+            dataSource.getMaxTotal(), dataSource.getMaxTotal());
+        writeParallelism = dataSource.getMaxTotal();
+      }
+    }
+    if (partitions > 1 && dataSource.getMaxTotal() > 0
+        && (long) Math.max(1, writeParallelism) * partitions > dataSource.getMaxTotal()) {
+      // partitions hold their connections until all partitions are applied, pool without enough connections blocks
+      // the writers forever
+      throw new DebeziumException("Write parallelism " + Math.max(1, writeParallelism) + " with " + partitions +
+                                  " upsert partitions needs more connections than maximum number of connections " +
+                                  dataSource.getMaxTotal() + " of the connection pool! Increase " +
+                                  "`debezium.sink.jdbc.database.param.maxTotal` or decrease " +
+                                  "`debezium.sink.jdbc.upsert-partitions`.");
+    }
+    if (writeParallelism > 1) {
+      LOGGER.info("Writing tables in parallel with parallelism {}", writeParallelism);
+      final AtomicInteger threadCount = new AtomicInteger();
+      writePool = Executors.newFixedThreadPool(writeParallelism, r -> {
+        Thread t = new Thread(r, "jdbc-table-writer-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    if (bufferEnabled && pipelineEnabled) {
+      LOGGER.warn("Coalescing buffer is used, pipelined writes are disabled.");
+      pipelineEnabled = false;
+    }
+    if (pipelineEnabled) {
+      LOGGER.info("Using pipelined write stage with queue size {}", pipelineQueueSize);
+      // failure is thrown to the engine with the next batch, which stops the engine
+      writeStage = new BatchWriteStage(pipelineQueueSize, pipelineCloseTimeoutMs, this::writeFailed);
+    }
+    if (bufferEnabled) {
+      LOGGER.info("Using coalescing buffer, flushing tables at {} rows, {} bytes or {}ms age", bufferMaxRows,
+          bufferMaxBytes, bufferMaxAgeMs);
+      buffer = new CoalescingBuffer<>(bufferMaxRows, bufferMaxBytes, bufferMaxAgeMs, clock);
+      bufferTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "jdbc-buffer-flush");
+        t.setDaemon(true);
+        return t;
+      });
+      // aged tables are flushed even when the source is idle and no batch arrives
+      final long interval = Math.max(10, Math.min(1000, bufferMaxAgeMs / 2));
+      bufferTimer.scheduleWithFixedDelay(this::flushAged, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    if (writeStage != null) {
+      writeStage.close();
+    }
+    if (buffer != null) {
+      this.closeBuffer();
+    }
+    if (decodePool != null) {
+      decodePool.shutdown();
+    }
+    if (writePool != null) {
+      writePool.shutdown();
+    }
+    if (tableWriter != null) {
+      // snapshot writer reuses the table writer, its other writers hold no resources
+      tableWriter.close();
+    }
+  }
+
+  /**
+   * Flushes all buffered events and stops the buffer timer. The engine has stopped handing over batches, offsets of
+   * the flushed batches are marked here.
+   */
+  void closeBuffer() {
+    try {
+      if (writeFailure == null) {
+        synchronized (buffer) {
+          this.flushBuffer(buffer.ready(true));
+        }
+        this.markFlushed();
+      }
+      if (bufferTimer != null) {
+        bufferTimer.shutdown();
+        if (!bufferTimer.awaitTermination(BUFFER_CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+          LOGGER.warn("Coalescing buffer timer didn't stop in {}ms", BUFFER_CLOSE_TIMEOUT_MS);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      LOGGER.error("Flushing coalescing buffer on close failed, buffered events are replayed after restart", e);
+    }
+  }
 
-    // configure and set 
-    valSerde.configure(Collections.emptyMap(), false);
-    valDeserializer = valSerde.deserializer();
-    // configure and set 
-    keySerde.configure(Collections.emptyMap(), true);
-    keyDeserializer = keySerde.deserializer();
+  /**
+   * @param event first event of the table in the batch, reloads cached table when the structure of the events changes
+   */
+  public RelationalTable getJdbcTable(String tableName, JdbcChangeEvent event) throws DebeziumException {
+    return tableCache.get(targetSchema, tableName, RelationalTableCache.eventStructure(event, eventSchemaEnabled),
+        () -> this.loadJdbcTable(tableName, event.schema()));
   }
 
-  public RelationalTable getJdbcTable(String tableName, JdbcChangeEvent.Schema schema) throws DebeziumException {
+  protected RelationalTable loadJdbcTable(String tableName, JdbcChangeEvent.Schema schema) throws DebeziumException {
     RelationalTable t;
     try {
       try (Handle handle = jdbi.open()) {
@@ -176,44 +395,85 @@ public class JdbcChangeConsumer extends BaseChangeConsumer implements DebeziumEn
    * @param numUploadedEvents periodically log number of events consumed
    */
   protected void logConsumerProgress(long numUploadedEvents) {
-    numConsumedEvents += numUploadedEvents;
+    numConsumedEvents.addAndGet(numUploadedEvents);
     if (logTimer.expired()) {
-      LOGGER.info("Consumed {} records after {}", numConsumedEvents, Strings.duration(clock.currentTimeInMillis() - consumerStart));
-      numConsumedEvents = 0;
-      consumerStart = clock.currentTimeInMillis();
-      logTimer = Threads.timer(clock, LOG_INTERVAL);
+      synchronized (this) {
+        if (!logTimer.expired()) {
+          return;
+        }
+        LOGGER.info("Consumed {} records after {}, decode took {} write took {}", numConsumedEvents.getAndSet(0),
+            Strings.duration(clock.currentTimeInMillis() - consumerStart),
+            Strings.duration(decodeTimeMs.getAndSet(0)), Strings.duration(writeTimeMs.getAndSet(0)));
+        LOGGER.info("Table metadata cache hits:{} misses:{}", tableCache.hits(), tableCache.misses());
+        consumerStart = clock.currentTimeInMillis();
+        logTimer = Threads.timer(clock, LOG_INTERVAL);
+      }
     }
   }
 
   @Override
   public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
       throws InterruptedException {
+    this.checkWriteFailure();
     Instant start = Instant.now();
+    // snapshot state is captured with the batch, pipelined writes might run after the snapshot completed
+    final boolean snapshot = snapshotWriter != null && dbzMetrics.snapshotRunning();
 
     //group events by destination
-    Map<String, List<JdbcChangeEvent>> result =
-        records.stream()
-            .map((ChangeEvent<Object, Object> e)
-                -> {
-              try {
-                return new JdbcChangeEvent(e.destination(),
-                    valDeserializer.deserialize(e.destination(), getBytes(e.value())),
-                    e.key() == null ? null : valDeserializer.deserialize(e.destination(), getBytes(e.key())),
-                    mapper.readTree(getBytes(e.value())).get("schema"),
-                    e.key() == null ? null : mapper.readTree(getBytes(e.key())).get("schema")
-                );
-              } catch (IOException ex) {
-                throw new DebeziumException(ex);
-              }
-            })
-            .collect(Collectors.groupingBy(JdbcChangeEvent::destination));
+    final BatchStageEvent decodeEvent = BatchStageEvent.start("decode", null, records.size());
+    Map<String, List<JdbcChangeEvent>> result = this.decodeAndGroup(records);
+    if (decodeEvent.isEnabled()) {
+      decodeEvent.bytes(batchBytes(records)).commit();
+    }
+    long batchDecodeMs = Duration.between(start, Instant.now()).toMillis();
+    sinkMetrics.batch(records.size());
+    sinkMetrics.decode(batchDecodeMs);
 
-    // consume list of events for each destination table
-    for (Map.Entry<String, List<JdbcChangeEvent>> tableEvents : result.entrySet()) {
-      RelationalTable tbl = this.getJdbcTable(mapDestination(tableEvents.getKey()), tableEvents.getValue().get(0).schema());
-      tableWriter.addToTable(tbl, tableEvents.getValue());
+    if (buffer != null) {
+      decodeTimeMs.addAndGet(batchDecodeMs);
+      this.bufferBatch(records, committer, result);
+    } else if (writeStage != null) {
+      // offsets are marked by the write stage after the batch is written
+      writeStage.submit(() -> this.writeBatch(records, committer, result, batchDecodeMs, snapshot));
+    } else {
+      this.writeBatch(records, committer, result, batchDecodeMs, snapshot);
     }
 
+    final Instant waitStart = Instant.now();
+    final BatchStageEvent waitEvent = BatchStageEvent.start("wait", null, records.size());
+    batchSizeWait.waitMs(records.size(), (int) Duration.between(start, waitStart).toMillis());
+    waitEvent.commit();
+    sinkMetrics.batchWait(Duration.between(waitStart, Instant.now()).toMillis());
+  }
+
+  /**
+   * Size of the serialized values of the records, only computed for recorded events since it walks the batch.
+   */
+  static long batchBytes(List<ChangeEvent<Object, Object>> records) {
+    long bytes = 0;
+    for (ChangeEvent<Object, Object> record : records) {
+      bytes += JdbcUtil.serializedSize(record.value());
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes decoded batch to destination tables and marks offsets of its records.
+   *
+   * @param snapshot batch is read while the source snapshot is running, snapshot fast path is used to write it
+   */
+  protected void writeBatch(List<ChangeEvent<Object, Object>> records,
+                            DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer,
+                            Map<String, List<JdbcChangeEvent>> result, long batchDecodeMs, boolean snapshot)
+      throws InterruptedException {
+    Instant start = Instant.now();
+    this.writeEvents(result, snapshot);
+
+    long batchWriteMs = Duration.between(start, Instant.now()).toMillis();
+    decodeTimeMs.addAndGet(batchDecodeMs);
+    writeTimeMs.addAndGet(batchWriteMs);
+    LOGGER.debug("Decoded {} records in {}ms, written in {}ms", records.size(), batchDecodeMs, batchWriteMs);
+
     // workaround! somehow offset is not saved to file unless we call committer.markProcessed
     // even it's should be saved to file periodically
     for (ChangeEvent<Object, Object> record : records) {
@@ -222,8 +482,217 @@ public class JdbcChangeConsumer extends BaseChangeConsumer implements DebeziumEn
     }
     committer.markBatchFinished();
     this.logConsumerProgress(records.size());
+  }
+
+  /**
+   * Writes decoded events grouped by destination to their tables.
+   */
+  protected void writeEvents(Map<String, List<JdbcChangeEvent>> result, boolean snapshot) throws InterruptedException {
+    final BaseTableWriter writer = snapshot ? snapshotWriter : tableWriter;
 
-    batchSizeWait.waitMs(records.size(), (int) Duration.between(start, Instant.now()).toMillis());
+    // group destinations by table, destinations mapped to the same table are written one after another
+    Map<String, List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>>> tables = new LinkedHashMap<>();
+    for (Map.Entry<String, List<JdbcChangeEvent>> tableEvents : result.entrySet()) {
+      final long lookupStart = System.nanoTime();
+      final String tableName = mapDestination(tableEvents.getKey());
+      final BatchStageEvent lookupEvent = BatchStageEvent.start("metadata", tableName, tableEvents.getValue().size());
+      RelationalTable tbl = this.getJdbcTable(tableName, tableEvents.getValue().get(0));
+      lookupEvent.commit();
+      sinkMetrics.metadataLookup(System.nanoTime() - lookupStart);
+      tables.computeIfAbsent(tbl.tableId(), k -> new ArrayList<>()).add(Map.entry(tbl, tableEvents.getValue()));
+    }
+    // consume list of events for each destination table
+    this.writeTables(tables.values(), writer);
+    for (Map.Entry<String, List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>>> table : tables.entrySet()) {
+      sinkMetrics.rowsWritten(table.getKey(), table.getValue().stream().mapToInt(e -> e.getValue().size()).sum());
+    }
+    if (snapshot) {
+      snapshotCompletePending.set(true);
+    } else if (snapshotWriter != null && snapshotCompletePending.compareAndSet(true, false)) {
+      // creates deferred indexes and analyzes bulk loaded tables once the snapshot is over
+      snapshotWriter.complete();
+    }
+  }
+
+  /**
+   * Records failure of a write running outside of the engine thread, the first one is thrown with the next batch.
+   */
+  protected void writeFailed(Throwable e) {
+    LOGGER.error("Batch write failed, failing the next batch", e);
+    synchronized (this) {
+      if (writeFailure == null) {
+        writeFailure = e;
+      }
+    }
+  }
+
+  protected void checkWriteFailure() {
+    if (writeFailure != null) {
+      throw new DebeziumException("Batch write failed, stopping the consumer", writeFailure);
+    }
+  }
+
+  /**
+   * Adds the batch to the coalescing buffer and flushes the tables reaching their limits. Offsets of the batch are
+   * marked once all its tables are flushed.
+   */
+  protected void bufferBatch(List<ChangeEvent<Object, Object>> records,
+                             DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer,
+                             Map<String, List<JdbcChangeEvent>> result) throws InterruptedException {
+    Map<String, Long> bytes = new HashMap<>();
+    for (ChangeEvent<Object, Object> record : records) {
+      bytes.merge(record.destination(), JdbcUtil.serializedSize(record.value()), Long::sum);
+    }
+    synchronized (buffer) {
+      // buffered events of a table are written with their schema before the events of a new schema are added
+      this.flushBuffer(buffer.schemaChanged(result));
+      buffer.add(new EngineBatch(records, committer), result, bytes,
+          destination -> upsert && this.getJdbcTable(mapDestination(destination), result.get(destination).get(0)).hasPK());
+      this.flushBuffer(buffer.ready(false));
+    }
+    this.markFlushed();
+  }
+
+  private void flushAged() {
+    try {
+      synchronized (buffer) {
+        this.flushBuffer(buffer.ready(false));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable e) {
+      this.writeFailed(e);
+      bufferTimer.shutdown();
+    }
+  }
+
+  /**
+   * Writes buffered events of the destinations, caller holds the buffer lock. Completed batches are queued, their
+   * offsets are marked by {@link #markFlushed()}.
+   */
+  protected void flushBuffer(Set<String> destinations) throws InterruptedException {
+    if (destinations.isEmpty()) {
+      return;
+    }
+    Instant start = Instant.now();
+    final boolean snapshot = snapshotWriter != null && dbzMetrics.snapshotRunning();
+    this.writeEvents(buffer.take(destinations), snapshot);
+    writeTimeMs.addAndGet(Duration.between(start, Instant.now()).toMillis());
+
+    flushedBatches.addAll(buffer.flushed(destinations));
+  }
+
+  /**
+   * Marks offsets of the flushed batches in their order. It's called by the engine thread only, the committer is not
+   * called by the timer thread after handleBatch returned. Offsets of batches flushed by the timer while the source is
+   * idle are marked with the next batch, after a restart before it their events are written again.
+   */
+  protected void markFlushed() throws InterruptedException {
+    EngineBatch batch;
+    while ((batch = flushedBatches.poll()) != null) {
+      for (ChangeEvent<Object, Object> record : batch.records) {
+        batch.committer.markProcessed(record);
+      }
+      batch.committer.markBatchFinished();
+      this.logConsumerProgress(batch.records.size());
+    }
+  }
+
+  /**
+   * Engine batch waiting in the coalescing buffer, with the committer marking its offsets.
+   */
+  static final class EngineBatch {
+    final List<ChangeEvent<Object, Object>> records;
+    final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer;
+
+    EngineBatch(List<ChangeEvent<Object, Object>> records,
+                DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer) {
+      this.records = records;
+      this.committer = committer;
+    }
+  }
+
+  /**
+   * Writes the tables, with parallel write enabled tables are written concurrently each using its own connection.
+   * Returns after all tables are written, when any of them fails the error is thrown after the others completed.
+   */
+  protected void writeTables(Collection<List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>>> tables,
+                             BaseTableWriter writer)
+      throws InterruptedException {
+    if (batchTransaction) {
+      // single transaction for all tables, batch is written atomically
+      jdbi.useTransaction(handle -> tables.forEach(t ->
+          writeTable(t, (table, events) -> writer.addToTable(handle, table, events))));
+      return;
+    }
+    if (writePool == null || tables.size() < 2) {
+      tables.forEach(t -> writeTable(t, writer::addToTable));
+      return;
+    }
+
+    List<Future<?>> writes = new ArrayList<>(tables.size());
+    for (List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>> table : tables) {
+      writes.add(writePool.submit(() -> writeTable(table, writer::addToTable)));
+    }
+    RuntimeException error = null;
+    for (Future<?> write : writes) {
+      try {
+        write.get();
+      } catch (ExecutionException e) {
+        RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+            new DebeziumException(e.getCause());
+        if (error == null) {
+          error = cause;
+        } else {
+          error.addSuppressed(cause);
+        }
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  private void writeTable(List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>> tableEvents,
+                          BiConsumer<RelationalTable, List<JdbcChangeEvent>> writer) {
+    for (Map.Entry<RelationalTable, List<JdbcChangeEvent>> events : tableEvents) {
+      final BatchStageEvent event = BatchStageEvent.start("write", events.getKey().tableId(), events.getValue().size());
+      try {
+        writer.accept(events.getKey(), events.getValue());
+        event.commit();
+      } catch (RuntimeException e) {
+        if (RelationalTableCache.isColumnMismatch(e)) {
+          // table metadata might be stale, reload it with the next batch
+          tableCache.invalidate(events.getKey());
+        }
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Decodes events and groups them by destination. Events keep their source order within each destination, with
+   * parallel decode enabled ordered parallel stream is used for it.
+   */
+  protected Map<String, List<JdbcChangeEvent>> decodeAndGroup(List<ChangeEvent<Object, Object>> records)
+      throws InterruptedException {
+    if (decodePool == null) {
+      return records.stream()
+          .map(decoder::decode)
+          .collect(Collectors.groupingBy(JdbcChangeEvent::destination));
+    }
+
+    try {
+      return decodePool.submit(() -> records.parallelStream()
+          .map(decoder::decode)
+          .collect(Collectors.groupingBy(JdbcChangeEvent::destination))
+      ).get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new DebeziumException(e.getCause());
+    }
   }
 
   public String mapDestination(String destination) {
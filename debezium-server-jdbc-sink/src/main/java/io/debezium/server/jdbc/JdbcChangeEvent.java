@@ -8,10 +8,15 @@
 
 package io.debezium.server.jdbc;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.jdbi.v3.core.qualifier.QualifiedType;
@@ -24,16 +29,22 @@ import org.slf4j.LoggerFactory;
 public class JdbcChangeEvent {
 
   protected static final Logger LOGGER = LoggerFactory.getLogger(JdbcChangeEvent.class);
+  public static final String OP_FIELD = "__op";
+  public static final String SOURCE_TS_MS_FIELD = "__source_ts_ms";
   protected final String destination;
   protected final JsonNode value;
   protected final JsonNode key;
   final Schema schema;
 
   public JdbcChangeEvent(String destination, JsonNode value, JsonNode key, JsonNode valueSchema, JsonNode keySchema) {
+    this(destination, value, key, new Schema(valueSchema, keySchema));
+  }
+
+  public JdbcChangeEvent(String destination, JsonNode value, JsonNode key, Schema schema) {
     this.destination = destination;
     this.value = value;
     this.key = key;
-    this.schema = new Schema(valueSchema, keySchema);
+    this.schema = schema;
   }
 
   public JsonNode key() {
@@ -54,8 +65,52 @@ public class JdbcChangeEvent {
     });
   }
 
+  /**
+   * @return new parser streaming the value payload
+   */
+  public JsonParser valueParser() {
+    return value().traverse(JdbcChangeConsumer.mapper);
+  }
+
+  /**
+   * @return new parser streaming the key payload
+   */
+  public JsonParser keyParser() {
+    return key().traverse(JdbcChangeConsumer.mapper);
+  }
+
+  /**
+   * @return top level field names of the value payload
+   */
+  public List<String> valueFieldNames() {
+    return fieldNames(value());
+  }
+
+  /**
+   * @return top level field names of the key payload
+   */
+  public List<String> keyFieldNames() {
+    return fieldNames(key());
+  }
+
+  private static List<String> fieldNames(JsonNode node) {
+    List<String> names = new ArrayList<>();
+    if (node != null) {
+      for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+        names.add(it.next());
+      }
+    }
+    return names;
+  }
+
   public String operation() {
-    return value().get("__op").textValue();
+    JsonNode op = value().get(OP_FIELD);
+    return op == null ? null : op.textValue();
+  }
+
+  public long sourceTsMs() {
+    JsonNode ts = value().get(SOURCE_TS_MS_FIELD);
+    return ts == null ? 0 : ts.asLong(0);
   }
 
   public Schema schema() {
@@ -146,13 +201,23 @@ public class JdbcChangeEvent {
 //    return val;
 //  }
 
-  public static class Schema {
+  /**
+   * Immutable event schema, field types are calculated once at creation. Instances are shared between events using
+   * {@link SchemaRegistry}.
+   */
+  public static final class Schema {
     private final JsonNode valueSchema;
     private final JsonNode keySchema;
+    private final Map<String, QualifiedType<?>> valueSchemaFields;
+    private final Map<String, QualifiedType<?>> keySchemaFields;
+    private final int hash;
 
     Schema(JsonNode valueSchema, JsonNode keySchema) {
       this.valueSchema = valueSchema;
       this.keySchema = keySchema;
+      this.valueSchemaFields = Collections.unmodifiableMap(schemaFields(valueSchema));
+      this.keySchemaFields = Collections.unmodifiableMap(schemaFields(keySchema));
+      this.hash = Objects.hash(valueSchema, keySchema);
     }
 
     public JsonNode valueSchema() {
@@ -164,24 +229,23 @@ public class JdbcChangeEvent {
     }
 
     public Map<String, QualifiedType<?>> valueSchemaFields() {
-      if (valueSchema != null && valueSchema.has("fields") && valueSchema.get("fields").isArray()) {
-        LOGGER.debug(valueSchema.toString());
-        return fields(valueSchema, "", 0);
-      }
-      LOGGER.trace("Event schema not found!");
-      return new HashMap<>();
+      return valueSchemaFields;
     }
 
     public Map<String, QualifiedType<?>> keySchemaFields() {
-      if (keySchema != null && keySchema.has("fields") && keySchema.get("fields").isArray()) {
-        LOGGER.debug(keySchema.toString());
-        return fields(keySchema, "", 0);
+      return keySchemaFields;
+    }
+
+    private static Map<String, QualifiedType<?>> schemaFields(JsonNode schema) {
+      if (schema != null && schema.has("fields") && schema.get("fields").isArray()) {
+        LOGGER.debug(schema.toString());
+        return fields(schema, "", 0);
       }
-      LOGGER.trace("Key schema not found!");
+      LOGGER.trace("Schema not found!");
       return new HashMap<>();
     }
 
-    private Map<String, QualifiedType<?>> fields(JsonNode eventSchema, String schemaName, int columnId) {
+    private static Map<String, QualifiedType<?>> fields(JsonNode eventSchema, String schemaName, int columnId) {
       Map<String, QualifiedType<?>> fields = new HashMap<>();
       String schemaType = eventSchema.get("type").textValue();
       LOGGER.debug("Converting Schema of: {}::{}", schemaName, schemaType);
@@ -226,7 +290,7 @@ public class JdbcChangeEvent {
       return fields;
     }
 
-    private QualifiedType<?> fieldType(String fieldType) {
+    private static QualifiedType<?> fieldType(String fieldType) {
       switch (fieldType) {
         case "int8":
         case "int16":
@@ -261,12 +325,12 @@ public class JdbcChangeEvent {
       if (this == o) return true;
       if (o == null || getClass() != o.getClass()) return false;
       Schema that = (Schema) o;
-      return Objects.equals(valueSchema, that.valueSchema) && Objects.equals(keySchema, that.keySchema);
+      return hash == that.hash && Objects.equals(valueSchema, that.valueSchema) && Objects.equals(keySchema, that.keySchema);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(valueSchema, keySchema);
+      return hash;
     }
   }
 
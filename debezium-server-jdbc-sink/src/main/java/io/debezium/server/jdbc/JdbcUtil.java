@@ -55,6 +55,35 @@ public class JdbcUtil {
     return ret;
   }
 
+  /**
+   * Serialized size of an event key or value received from the engine, length of byte arrays and UTF-8 encoded length of
+   * strings. The UTF-8 length is counted without encoding the string.
+   */
+  public static long serializedSize(Object data) {
+    if (data == null) {
+      return 0;
+    }
+    if (data instanceof byte[]) {
+      return ((byte[]) data).length;
+    }
+    final CharSequence text = data instanceof CharSequence ? (CharSequence) data : data.toString();
+    long size = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c < 0x80) {
+        size += 1;
+      } else if (c < 0x800) {
+        size += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+        size += 4;
+        i++;
+      } else {
+        size += 3;
+      }
+    }
+    return size;
+  }
+
   private static Map<String, DataType<?>> fields(JsonNode valueSchema) {
     if (valueSchema != null && valueSchema.has("fields") && valueSchema.get("fields").isArray()) {
       return fields(valueSchema, "", 0);
@@ -0,0 +1,194 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Interns event schemas. Events having same value and key schema share single immutable {@link JdbcChangeEvent.Schema}
+ * instance. Cache is bounded and schemas which are not referenced by any event anymore are evicted.
+ * <p>
+ * Schemas are looked up by their raw json text in the event, it's hashed once and compared only when hashes are equal.
+ * Schema text is parsed to a tree only the first time it's seen.
+ *
+ * @author Ismail Simsek
+ */
+public class SchemaRegistry {
+
+  private final Cache<Fingerprint, JdbcChangeEvent.Schema> schemas;
+
+  public SchemaRegistry(long maxSize) {
+    this.schemas = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .weakValues()
+        .build();
+  }
+
+  /**
+   * @param valueSchema raw value schema, null when the event has none
+   * @param keySchema   raw key schema, null when the event has none
+   */
+  public JdbcChangeEvent.Schema intern(RawSchema valueSchema, RawSchema keySchema) {
+    final Fingerprint fingerprint = new Fingerprint(valueSchema, keySchema);
+    final JdbcChangeEvent.Schema schema = schemas.getIfPresent(fingerprint);
+    if (schema != null) {
+      return schema;
+    }
+    // registered fingerprint keeps a copy of the schema text instead of the whole event data
+    return schemas.asMap().computeIfAbsent(fingerprint.compact(),
+        f -> new JdbcChangeEvent.Schema(parse(valueSchema), parse(keySchema)));
+  }
+
+  public long size() {
+    return schemas.size();
+  }
+
+  private static JsonNode parse(RawSchema schema) {
+    try {
+      return schema == null ? null : schema.parse();
+    } catch (IOException e) {
+      throw new DebeziumException("Failed to parse event schema", e);
+    }
+  }
+
+  /**
+   * Json text of a schema within the event data, which is a String or byte[] as received from the engine.
+   */
+  public static final class RawSchema {
+    private final Object data;
+    private final int offset;
+    private final int length;
+    private final int hash;
+
+    RawSchema(Object data, int offset, int length) {
+      this.data = data;
+      this.offset = offset;
+      this.length = length;
+      int h = 0;
+      if (data instanceof String) {
+        final String text = (String) data;
+        for (int i = offset; i < offset + length; i++) {
+          h = 31 * h + text.charAt(i);
+        }
+      } else {
+        final byte[] bytes = (byte[]) data;
+        for (int i = offset; i < offset + length; i++) {
+          h = 31 * h + bytes[i];
+        }
+      }
+      this.hash = h;
+    }
+
+    static RawSchema of(String json) {
+      return new RawSchema(json, 0, json.length());
+    }
+
+    /**
+     * Locates the schema at the current token of the parser created over the data, without parsing it. Parser is
+     * positioned at the end of the schema afterwards.
+     *
+     * @return located schema, null when the schema is json null
+     */
+    static RawSchema read(Object data, JsonParser parser) throws IOException {
+      if (parser.currentToken() == JsonToken.VALUE_NULL) {
+        return null;
+      }
+      final boolean bytes = data instanceof byte[];
+      final JsonLocation start = parser.getTokenLocation();
+      final long from = bytes ? start.getByteOffset() : start.getCharOffset();
+      if (parser.currentToken() != JsonToken.START_OBJECT || from < 0) {
+        // location is unknown to the parser, use text of the parsed schema
+        return of(parser.readValueAsTree().toString());
+      }
+      parser.skipChildren();
+      final JsonLocation end = parser.getTokenLocation();
+      final long to = (bytes ? end.getByteOffset() : end.getCharOffset()) + 1;
+      return new RawSchema(data, (int) from, (int) (to - from));
+    }
+
+    JsonNode parse() throws IOException {
+      if (data instanceof String) {
+        return JdbcChangeConsumer.mapper.readTree(((String) data).substring(offset, offset + length));
+      }
+      return JdbcChangeConsumer.mapper.readTree(
+          JdbcChangeConsumer.mapper.getFactory().createParser((byte[]) data, offset, length));
+    }
+
+    RawSchema compact() {
+      if (data instanceof String) {
+        return offset == 0 && length == ((String) data).length() ? this :
+            new RawSchema(((String) data).substring(offset, offset + length), 0, length);
+      }
+      return offset == 0 && length == ((byte[]) data).length ? this :
+          new RawSchema(Arrays.copyOfRange((byte[]) data, offset, offset + length), 0, length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      RawSchema that = (RawSchema) o;
+      if (hash != that.hash || length != that.length || data.getClass() != that.data.getClass()) {
+        return false;
+      }
+      if (data instanceof String) {
+        return ((String) data).regionMatches(offset, (String) that.data, that.offset, length);
+      }
+      return Arrays.equals((byte[]) data, offset, offset + length, (byte[]) that.data, that.offset,
+          that.offset + length);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  static final class Fingerprint {
+    private final RawSchema valueSchema;
+    private final RawSchema keySchema;
+    private final int hash;
+
+    Fingerprint(RawSchema valueSchema, RawSchema keySchema) {
+      this.valueSchema = valueSchema;
+      this.keySchema = keySchema;
+      this.hash = Objects.hash(valueSchema, keySchema);
+    }
+
+    Fingerprint compact() {
+      return new Fingerprint(valueSchema == null ? null : valueSchema.compact(),
+          keySchema == null ? null : keySchema.compact());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Fingerprint that = (Fingerprint) o;
+      return hash == that.hash && Objects.equals(valueSchema, that.valueSchema) && Objects.equals(keySchema, that.keySchema);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
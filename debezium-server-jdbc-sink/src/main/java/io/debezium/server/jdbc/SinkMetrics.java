@@ -0,0 +1,151 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.jdbi.v3.core.ConnectionFactory;
+
+/**
+ * Metrics of the sink hot path, exported with the micrometer registry of quarkus. Table level meters are tagged with
+ * the destination table. Writers created without the registry use {@link #NOOP} which records nothing.
+ *
+ * @author Ismail Simsek
+ */
+@Dependent
+public class SinkMetrics {
+  public static final SinkMetrics NOOP = new SinkMetrics(new CompositeMeterRegistry());
+  static final String PREFIX = "debezium.jdbc.";
+  static final String TABLE = "table";
+
+  private final MeterRegistry registry;
+  private final AtomicLong batchWaitMs = new AtomicLong();
+  private final AtomicInteger connectionsAcquiring = new AtomicInteger();
+  private final DistributionSummary batchSize;
+  private final Timer decodeTime;
+  private final Timer metadataTime;
+  private final Timer batchWaitTime;
+  private final ConcurrentHashMap<String, TableMeters> tables = new ConcurrentHashMap<>();
+
+  @Inject
+  public SinkMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.batchSize = DistributionSummary.builder(PREFIX + "batch.size").baseUnit("records").register(registry);
+    this.decodeTime = registry.timer(PREFIX + "decode.time");
+    this.metadataTime = registry.timer(PREFIX + "metadata.time");
+    this.batchWaitTime = registry.timer(PREFIX + "batch.wait.time");
+  }
+
+  private TableMeters table(String table) {
+    return tables.computeIfAbsent(table, t -> new TableMeters(registry, t));
+  }
+
+  public void batch(int records) {
+    batchSize.record(records);
+  }
+
+  public void rowsWritten(String table, int rows) {
+    table(table).rowsWritten.increment(rows);
+  }
+
+  public void decode(long millis) {
+    decodeTime.record(millis, TimeUnit.MILLISECONDS);
+  }
+
+  public void metadataLookup(long nanos) {
+    metadataTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param nanos time of the deduplication
+   * @param input number of events before deduplication
+   * @param output number of events after deduplication
+   */
+  public void dedup(String table, long nanos, int input, int output) {
+    final TableMeters meters = table(table);
+    meters.dedupTime.record(nanos, TimeUnit.NANOSECONDS);
+    if (input > 0) {
+      meters.dedupRatio.record((double) output / input);
+    }
+  }
+
+  public void execute(String table, long nanos) {
+    table(table).executeTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void commit(String table, long nanos) {
+    table(table).commitTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void batchWait(long millis) {
+    batchWaitMs.set(millis);
+    batchWaitTime.record(millis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Registers gauges of the connection pool and of the batch size wait.
+   */
+  public void registerGauges(BasicDataSource dataSource) {
+    registry.gauge(PREFIX + "pool.active", dataSource, BasicDataSource::getNumActive);
+    registry.gauge(PREFIX + "pool.idle", dataSource, BasicDataSource::getNumIdle);
+    // dbcp doesn't expose waiters of the pool, acquisitions in progress include the ones served right away
+    registry.gauge(PREFIX + "pool.acquiring", connectionsAcquiring);
+    registry.gauge(PREFIX + "batch.wait.last", batchWaitMs);
+  }
+
+  /**
+   * Connection factory of the pool measuring connection wait time and the number of acquisitions in progress.
+   */
+  public ConnectionFactory connectionFactory(BasicDataSource dataSource) {
+    final Timer wait = registry.timer(PREFIX + "pool.wait.time");
+    return () -> {
+      connectionsAcquiring.incrementAndGet();
+      final long start = System.nanoTime();
+      try {
+        return dataSource.getConnection();
+      } finally {
+        wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        connectionsAcquiring.decrementAndGet();
+      }
+    };
+  }
+
+  /**
+   * Meters of a destination table, registered once on the first use of the table.
+   */
+  private static final class TableMeters {
+    final Counter rowsWritten;
+    final Timer dedupTime;
+    final DistributionSummary dedupRatio;
+    final Timer executeTime;
+    final Timer commitTime;
+
+    TableMeters(MeterRegistry registry, String table) {
+      this.rowsWritten = registry.counter(PREFIX + "rows.written", TABLE, table);
+      this.dedupTime = registry.timer(PREFIX + "dedup.time", TABLE, table);
+      this.dedupRatio = DistributionSummary.builder(PREFIX + "dedup.ratio").tags(Tags.of(TABLE, table))
+          .register(registry);
+      this.executeTime = registry.timer(PREFIX + "execute.time", TABLE, table);
+      this.commitTime = registry.timer(PREFIX + "commit.time", TABLE, table);
+    }
+  }
+
+}
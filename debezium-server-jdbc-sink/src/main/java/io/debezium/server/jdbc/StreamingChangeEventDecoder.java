@@ -0,0 +1,104 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Decodes value payload at token level without building json tree, payload tokens are buffered and replayed when the
+ * event is bound to a table row. Value schema is only located in the event text and the key is read as json tree. Requires flattened events.
+ *
+ * @author Ismail Simsek
+ */
+public class StreamingChangeEventDecoder extends ChangeEventDecoder {
+
+  public StreamingChangeEventDecoder(SchemaRegistry schemaRegistry) {
+    super(schemaRegistry);
+  }
+
+  @Override
+  public JdbcChangeEvent decode(ChangeEvent<Object, Object> e) {
+    try {
+      final Envelope key = readEnvelope(e.key());
+      SchemaRegistry.RawSchema valueSchema = null;
+      TokenBuffer valuePayload = null;
+
+      try (JsonParser parser = createParser(e.value())) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+          throw new DebeziumException("Expecting json object event value, destination:" + e.destination());
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String field = parser.getCurrentName();
+          parser.nextToken();
+          if (SCHEMA_FIELD.equals(field)) {
+            valueSchema = SchemaRegistry.RawSchema.read(e.value(), parser);
+          } else if (PAYLOAD_FIELD.equals(field)) {
+            valuePayload = new TokenBuffer(parser);
+            valuePayload.copyCurrentStructure(parser);
+          } else if (valueSchema == null && valuePayload == null) {
+            // event without schema, value itself is the payload
+            valuePayload = bufferObject(parser, field);
+            break;
+          } else {
+            parser.skipChildren();
+          }
+        }
+      }
+
+      if (valuePayload == null) {
+        throw new DebeziumException("Event payload not found, destination:" + e.destination());
+      }
+
+      String operation = null;
+      long sourceTsMs = 0;
+      try (JsonParser parser = valuePayload.asParser()) {
+        parser.nextToken();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String field = parser.getCurrentName();
+          parser.nextToken();
+          if (JdbcChangeEvent.OP_FIELD.equals(field)) {
+            operation = parser.getValueAsString();
+          } else if (JdbcChangeEvent.SOURCE_TS_MS_FIELD.equals(field)) {
+            sourceTsMs = parser.getValueAsLong(0);
+          } else {
+            parser.skipChildren();
+          }
+        }
+      }
+
+      return new StreamingJdbcChangeEvent(e.destination(), valuePayload, operation, sourceTsMs, key.payload,
+          schemaRegistry.intern(valueSchema, key.schema));
+    } catch (IOException ex) {
+      throw new DebeziumException(ex);
+    }
+  }
+
+  /**
+   * Buffers the rest of the json object, parser is positioned at the value of the given field.
+   */
+  private static TokenBuffer bufferObject(JsonParser parser, String field) throws IOException {
+    TokenBuffer buffer = new TokenBuffer(parser);
+    buffer.writeStartObject();
+    buffer.writeFieldName(field);
+    buffer.copyCurrentStructure(parser);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      buffer.copyCurrentStructure(parser);
+    }
+    buffer.writeEndObject();
+    return buffer;
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Change event keeping value payload as buffered json tokens instead of json tree. Payload is replayed with
+ * {@link #valueParser()} when it's written to a table, operation and source timestamp are extracted at decode time.
+ *
+ * @author Ismail Simsek
+ */
+public class StreamingJdbcChangeEvent extends JdbcChangeEvent {
+
+  private final TokenBuffer valuePayload;
+  private final String operation;
+  private final long sourceTsMs;
+
+  public StreamingJdbcChangeEvent(String destination, TokenBuffer valuePayload, String operation, long sourceTsMs,
+                                  JsonNode key, Schema schema) {
+    super(destination, null, key, schema);
+    this.valuePayload = valuePayload;
+    this.operation = operation;
+    this.sourceTsMs = sourceTsMs;
+  }
+
+  /**
+   * Materializes value payload as json tree, should not be used on the hot path.
+   */
+  @Override
+  public JsonNode value() {
+    try (JsonParser parser = valueParser()) {
+      return JdbcChangeConsumer.mapper.readTree(parser);
+    } catch (IOException e) {
+      throw new DebeziumException(e);
+    }
+  }
+
+  /**
+   * Reads field names from the buffered payload tokens, without materializing the json tree.
+   */
+  @Override
+  public List<String> valueFieldNames() {
+    List<String> names = new ArrayList<>();
+    try (JsonParser parser = valueParser()) {
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          names.add(parser.getCurrentName());
+          parser.nextToken();
+          parser.skipChildren();
+        }
+      }
+    } catch (IOException e) {
+      throw new DebeziumException(e);
+    }
+    return names;
+  }
+
+  @Override
+  public JsonParser valueParser() {
+    return valuePayload.asParser();
+  }
+
+  @Override
+  public String operation() {
+    return operation;
+  }
+
+  @Override
+  public long sourceTsMs() {
+    return sourceTsMs;
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.batchsizewait;
+
+import io.debezium.DebeziumException;
+import io.debezium.config.CommonConnectorConfig;
+import io.debezium.server.jdbc.DebeziumMetrics;
+
+import java.util.Optional;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adjusts wait between batches with additive increase multiplicative decrease (AIMD) control. Wait grows by a fixed
+ * step while batches are smaller than `max.batch.size` and the latency stays under the target, and it's cut by a factor
+ * when the latency exceeds the target or the streaming queue already holds a full batch. Latency is read from debezium
+ * metrics when metric mbeans are configured, otherwise it's estimated as wait plus processing time of the batch.
+ *
+ * @author Ismail Simsek
+ */
+@Dependent
+@Named("DynamicBatchSizeWait")
+public class DynamicBatchSizeWait implements InterfaceBatchSizeWait {
+  protected static final Logger LOGGER = LoggerFactory.getLogger(DynamicBatchSizeWait.class);
+  static final long POLL_INTERVAL_MS = 1000;
+
+  @ConfigProperty(name = "debezium.source.max.batch.size", defaultValue = CommonConnectorConfig.DEFAULT_MAX_BATCH_SIZE + "")
+  int maxBatchSize;
+  @ConfigProperty(name = "debezium.sink.batch.batch-size-wait.max-wait-ms", defaultValue = "300000")
+  long maxWaitMs;
+  @ConfigProperty(name = "debezium.sink.batch.batch-size-wait.target-latency-ms", defaultValue = "60000")
+  long targetLatencyMs;
+  @ConfigProperty(name = "debezium.sink.batch.batch-size-wait.increase-ms", defaultValue = "1000")
+  long increaseMs;
+  @ConfigProperty(name = "debezium.sink.batch.batch-size-wait.decrease-factor", defaultValue = "0.5")
+  double decreaseFactor;
+  @ConfigProperty(name = "debezium.sink.batch.metrics.snapshot-mbean", defaultValue = "")
+  Optional<String> snapshotMbean;
+  @ConfigProperty(name = "debezium.sink.batch.metrics.streaming-mbean", defaultValue = "")
+  Optional<String> streamingMbean;
+
+  @Inject
+  DebeziumMetrics dbzMetrics;
+  boolean useMetrics;
+  long lastWaitMs = 0;
+
+  @Override
+  public void initizalize() throws DebeziumException {
+    if (decreaseFactor < 0 || decreaseFactor >= 1) {
+      throw new DebeziumException("`debezium.sink.batch.batch-size-wait.decrease-factor`={" + decreaseFactor + "} " +
+                                  "must be at least 0 and less than 1!");
+    }
+    if (increaseMs <= 0) {
+      throw new DebeziumException("`debezium.sink.batch.batch-size-wait.increase-ms`={" + increaseMs + "} " +
+                                  "must be greater than 0!");
+    }
+    if (targetLatencyMs <= 0) {
+      throw new DebeziumException("`debezium.sink.batch.batch-size-wait.target-latency-ms`={" + targetLatencyMs +
+                                  "} must be greater than 0!");
+    }
+    useMetrics = snapshotMbean.isPresent() && streamingMbean.isPresent();
+    if (useMetrics) {
+      dbzMetrics.initizalize();
+    } else {
+      LOGGER.info("Debezium metrics mbeans not configured, latency is estimated from wait and processing time");
+    }
+  }
+
+  @Override
+  public void waitMs(Integer numRecordsProcessed, Integer processingTimeMs) throws InterruptedException {
+
+    // don't wait if snapshot process is running
+    if (useMetrics && dbzMetrics.snapshotRunning()) {
+      return;
+    }
+
+    final int queueSize = useMetrics ? dbzMetrics.streamingQueueCurrentSize() : -1;
+    final long lagMs = useMetrics ? dbzMetrics.streamingMilliSecondsBehindSource() : -1;
+    lastWaitMs = nextWaitMs(numRecordsProcessed, processingTimeMs, queueSize, lagMs);
+    LOGGER.debug("Processed {} in {}ms, QueueCurrentSize:{}, MilliSecondsBehindSource:{}, waiting {}ms",
+        numRecordsProcessed, processingTimeMs, queueSize, lagMs, lastWaitMs);
+
+    long waitedMs = 0;
+    while (waitedMs < lastWaitMs) {
+      final long sleepMs = Math.min(POLL_INTERVAL_MS, lastWaitMs - waitedMs);
+      Thread.sleep(sleepMs);
+      waitedMs += sleepMs;
+      if (useMetrics && dbzMetrics.streamingQueueCurrentSize() >= maxBatchSize) {
+        // full batch is ready, no reason to wait longer
+        break;
+      }
+    }
+  }
+
+  /**
+   * @param queueSize current streaming queue size, negative when unknown
+   * @param lagMs     milliseconds behind source, negative when unknown
+   * @return wait before the next batch
+   */
+  long nextWaitMs(int numRecordsProcessed, long processingTimeMs, int queueSize, long lagMs) {
+    final long latencyMs = lagMs >= 0 ? lagMs : lastWaitMs + processingTimeMs;
+    // wait leaving room for processing within the latency target
+    final long ceilingMs = Math.max(0, Math.min(maxWaitMs, targetLatencyMs - processingTimeMs));
+
+    if (latencyMs > targetLatencyMs || queueSize >= maxBatchSize) {
+      return Math.min(ceilingMs, (long) (lastWaitMs * decreaseFactor));
+    }
+    if (numRecordsProcessed < maxBatchSize) {
+      return Math.min(ceilingMs, lastWaitMs + increaseMs);
+    }
+    return Math.min(ceilingMs, lastWaitMs);
+  }
+
+}
@@ -8,10 +8,45 @@
 
 package io.debezium.server.jdbc.relational;
 
+import io.debezium.server.jdbc.BatchStageEvent;
+import io.debezium.server.jdbc.JdbcChangeEvent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 
 public class AppendTableWriter extends BaseTableWriter {
+  private final BaseTableWriter bulkWriter;
+  private final Set<String> bulkTables;
+
   public AppendTableWriter(Jdbi jdbi, String identifierQuoteCharacter) {
-    super(jdbi, identifierQuoteCharacter);
+    this(jdbi, identifierQuoteCharacter, null, Collections.emptySet(), BatchChunking.DISABLED);
+  }
+
+  /**
+   * @param bulkWriter writer used instead of batch inserts, like postgresql COPY or mysql LOAD DATA, null to disable it
+   * @param bulkTables tables written with the bulk writer, empty to use it for all tables
+   */
+  public AppendTableWriter(Jdbi jdbi, String identifierQuoteCharacter, BaseTableWriter bulkWriter, Set<String> bulkTables,
+                           BatchChunking chunking) {
+    super(jdbi, identifierQuoteCharacter, chunking);
+    this.bulkWriter = bulkWriter;
+    this.bulkTables = bulkTables;
+  }
+
+  @Override
+  int insert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    final BatchStageEvent event = BatchStageEvent.start("insert", table.tableId(), events.size());
+    final int inserted;
+    if (bulkWriter != null && (bulkTables.isEmpty() || bulkTables.contains(table.tableName))) {
+      inserted = bulkWriter.insert(handle, table, events);
+    } else {
+      inserted = super.insert(handle, table, events);
+    }
+    event.commit();
+    return inserted;
   }
 }
@@ -8,13 +8,21 @@
 
 package io.debezium.server.jdbc.relational;
 
+import io.debezium.server.jdbc.BatchStageEvent;
 import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.SinkMetrics;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.SqlStatement;
+import org.jdbi.v3.core.statement.Update;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,19 +31,132 @@ public abstract class BaseTableWriter {
   protected static final Logger LOGGER = LoggerFactory.getLogger(BaseTableWriter.class);
   final Jdbi jdbi;
   final String identifierQuoteCharacter;
+  final BatchChunking chunking;
+  SinkMetrics metrics = SinkMetrics.NOOP;
+  // columns missing from the event payload are written as null instead of failing the batch
+  boolean nullMissingColumns = false;
+  private final ConcurrentHashMap<String, BatchChunking.ChunkSize> chunkSizes = new ConcurrentHashMap<>();
 
   public BaseTableWriter(final Jdbi jdbi, String identifierQuoteCharacter) {
+    this(jdbi, identifierQuoteCharacter, BatchChunking.DISABLED);
+  }
+
+  public BaseTableWriter(final Jdbi jdbi, String identifierQuoteCharacter, BatchChunking chunking) {
     this.jdbi = jdbi;
     this.identifierQuoteCharacter = identifierQuoteCharacter;
+    this.chunking = chunking;
   }
 
+  /**
+   * Writes the events to the table in its own transaction.
+   */
   public void addToTable(final RelationalTable table, final List<JdbcChangeEvent> events) {
-    final String sql = table.preparedInsertStatement(this.identifierQuoteCharacter);
-    int inserts = jdbi.withHandle(handle -> {
-      PreparedBatch b = handle.prepareBatch(sql);
-      events.forEach(e -> b.add(e.valueAsMap()));
-      return Arrays.stream(b.execute()).sum();
+    jdbi.useHandle(handle -> {
+      handle.begin();
+      try {
+        final long start = System.nanoTime();
+        addToTable(handle, table, events);
+        final long commitStart = System.nanoTime();
+        metrics.execute(table.tableId(), commitStart - start);
+        final BatchStageEvent commitEvent = BatchStageEvent.start("commit", table.tableId(), events.size());
+        handle.commit();
+        commitEvent.commit();
+        metrics.commit(table.tableId(), System.nanoTime() - commitStart);
+      } catch (RuntimeException e) {
+        handle.rollback();
+        throw e;
+      }
     });
   }
 
+  /**
+   * Writes the events to the table using given handle, transaction is managed by the caller.
+   */
+  public void addToTable(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    int inserts = insert(handle, table, events);
+  }
+
+  /**
+   * Releases resources of the writer, like its threads. Called once when the consumer is closed.
+   */
+  public void close() {
+  }
+
+  /**
+   * Inserts the events to the table using given handle, upsert writers use it to insert within their transaction.
+   */
+  int insert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    final RowBinder binder = rowBinder(table);
+    return executeChunked(handle, table.preparedInsertStatement(this.identifierQuoteCharacter), events,
+        chunkSize(table, "insert"), (b, e) -> binder.add(b, e.valueParser()));
+  }
+
+  RowBinder rowBinder(final RelationalTable table) {
+    return table.rowBinder(nullMissingColumns);
+  }
+
+  /**
+   * Binds and executes the rows in chunks using the handle, only one chunk of bound rows is kept in memory.
+   *
+   * @return number of updated rows
+   */
+  <T> int executeChunked(final Handle handle, final String sql, final List<T> rows,
+                         final BatchChunking.ChunkSize chunkSize, final BiConsumer<PreparedBatch, T> binder) {
+    int updated = 0;
+    int position = 0;
+    while (position < rows.size()) {
+      final int size = Math.min(chunkSize.get(), rows.size() - position);
+      final long start = System.nanoTime();
+      PreparedBatch batch = handle.prepareBatch(sql);
+      for (T row : rows.subList(position, position + size)) {
+        binder.accept(batch, row);
+      }
+      updated += Arrays.stream(batch.execute()).sum();
+      chunkSize.record(size, System.nanoTime() - start);
+      position += size;
+    }
+    return updated;
+  }
+
+  /**
+   * Executes rows with statements covering multiple rows each, like multi row inserts. Full statements are executed as
+   * single batch, remaining rows use power of two row counts to keep the number of distinct statements small.
+   *
+   * @param statement statement of given number of rows
+   * @param binder    binds the rows of one statement
+   * @return number of updated rows
+   */
+  <T> int executeMultiRow(final Handle handle, final List<T> rows, final int rowsPerStatement,
+                          final IntFunction<String> statement, final BiConsumer<SqlStatement<?>, List<T>> binder) {
+    final int fullStatements = rows.size() / rowsPerStatement;
+    int updated = 0;
+    int position = 0;
+
+    if (fullStatements > 0) {
+      PreparedBatch batch = handle.prepareBatch(statement.apply(rowsPerStatement));
+      for (int i = 0; i < fullStatements; i++) {
+        binder.accept(batch, rows.subList(position, position + rowsPerStatement));
+        batch.add();
+        position += rowsPerStatement;
+      }
+      updated += Arrays.stream(batch.execute()).sum();
+    }
+
+    while (position < rows.size()) {
+      final int size = Integer.highestOneBit(rows.size() - position);
+      Update update = handle.createUpdate(statement.apply(size));
+      binder.accept(update, rows.subList(position, position + size));
+      updated += update.execute();
+      position += size;
+    }
+    return updated;
+  }
+
+  /**
+   * Chunk size of a statement of the table, statements are tracked separately since their cost differs.
+   */
+  BatchChunking.ChunkSize chunkSize(final RelationalTable table, final String statement) {
+    return chunkSizes.computeIfAbsent(table.tableId() + ":" + statement, k -> chunking.newChunkSize());
+  }
+
 }
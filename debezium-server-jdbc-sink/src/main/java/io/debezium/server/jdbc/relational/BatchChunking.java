@@ -0,0 +1,94 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+/**
+ * Controls how many rows are bound and executed per jdbc batch. Without chunking all rows of a table are executed as
+ * single batch. With fixed chunk size rows are executed in chunks of the configured size, adaptive chunk size starts
+ * with the configured size and adjusts it using measured throughput and round trip latency of each chunk.
+ */
+public class BatchChunking {
+
+  public static final BatchChunking DISABLED = new BatchChunking(0, false, 0, 0, 0);
+
+  final int size;
+  final boolean adaptive;
+  final int minSize;
+  final int maxSize;
+  final long targetLatencyMs;
+
+  /**
+   * @param size            rows per chunk, initial size when adaptive, zero or negative value disables chunking
+   * @param adaptive        adjusts chunk size between minSize and maxSize
+   * @param targetLatencyMs chunk size is reduced when executing a chunk takes longer than this
+   */
+  public BatchChunking(int size, boolean adaptive, int minSize, int maxSize, long targetLatencyMs) {
+    this.size = size;
+    this.adaptive = adaptive && size > 0;
+    this.minSize = Math.max(1, Math.min(minSize, size));
+    this.maxSize = Math.max(size, maxSize);
+    this.targetLatencyMs = targetLatencyMs;
+  }
+
+  public ChunkSize newChunkSize() {
+    if (size <= 0) {
+      return new ChunkSize(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+    if (!adaptive) {
+      return new ChunkSize(size, size, size, Long.MAX_VALUE);
+    }
+    return new ChunkSize(size, minSize, maxSize, targetLatencyMs * 1_000_000L);
+  }
+
+  /**
+   * Chunk size of one statement of a table. Size grows while rows per second improves, direction is reversed when
+   * throughput drops, and size shrinks while round trip of a chunk is slower than the target latency.
+   */
+  public static class ChunkSize {
+    static final double STEP = 1.5;
+    static final double SMOOTHING = 0.5;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyNanos;
+    private int size;
+    private int direction = 1;
+    private double throughput;
+
+    ChunkSize(int size, int minSize, int maxSize, long targetLatencyNanos) {
+      this.size = size;
+      this.minSize = minSize;
+      this.maxSize = maxSize;
+      this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    public synchronized int get() {
+      return size;
+    }
+
+    /**
+     * Records executed chunk, partial chunks are ignored since they don't represent the current size.
+     */
+    public synchronized void record(int rows, long elapsedNanos) {
+      if (minSize == maxSize || rows < size) {
+        return;
+      }
+      final double current = rows * 1_000_000_000d / Math.max(1, elapsedNanos);
+      if (elapsedNanos > targetLatencyNanos) {
+        direction = -1;
+      } else if (current < throughput) {
+        direction = -direction;
+      }
+      throughput = throughput == 0 ? current : throughput * (1 - SMOOTHING) + current * SMOOTHING;
+      final long next = direction > 0 ? (long) Math.ceil(size * STEP) : (long) (size / STEP);
+      size = (int) Math.max(minSize, Math.min(maxSize, next));
+    }
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jdbi.v3.core.Handle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops secondary indexes of tables before snapshot load and creates them again after the snapshot. Definitions of
+ * dropped indexes are saved to `debezium_deferred_indexes` table of the destination schema before dropping them, indexes
+ * left over by an interrupted run are created with the next {@link #restore(Handle)}. Primary keys, indexes backing
+ * constraints and indexes used by foreign keys are kept. Supported for postgresql and mysql.
+ */
+public class DeferredIndexes {
+  protected static final Logger LOGGER = LoggerFactory.getLogger(DeferredIndexes.class);
+  public static final String REGISTRY_TABLE = "debezium_deferred_indexes";
+
+  final String schema;
+  final String identifierQuoteCharacter;
+  final JdbcDialect dialect;
+
+  public DeferredIndexes(String schema, String identifierQuoteCharacter, JdbcDialect dialect) {
+    this.schema = schema;
+    this.identifierQuoteCharacter = identifierQuoteCharacter;
+    this.dialect = dialect;
+  }
+
+  public static boolean isSupported(JdbcDialect dialect) {
+    return dialect == JdbcDialect.POSTGRES || dialect == JdbcDialect.MYSQL;
+  }
+
+  /**
+   * Saves definitions of secondary indexes of the table and drops them.
+   *
+   * @return names of dropped indexes
+   */
+  public Set<String> drop(Handle handle, RelationalTable table) {
+    createRegistry(handle);
+    final Map<String, String> indexes = secondaryIndexes(handle, table);
+    for (Map.Entry<String, String> index : indexes.entrySet()) {
+      LOGGER.info("Dropping index {} of table {}, definition: {}", index.getKey(), table.tableId(), index.getValue());
+      handle.createUpdate(String.format("INSERT INTO %s (table_name, index_name, definition) VALUES (?, ?, ?)",
+              registryTable()))
+          .bind(0, table.tableName)
+          .bind(1, index.getKey())
+          .bind(2, index.getValue())
+          .execute();
+      handle.execute(dropStatement(table.tableName, index.getKey()));
+    }
+    return indexes.keySet();
+  }
+
+  /**
+   * Creates all indexes saved to the registry table and removes them from it.
+   *
+   * @return number of created indexes
+   */
+  public int restore(Handle handle) {
+    createRegistry(handle);
+    final List<Map<String, Object>> indexes = handle.createQuery(String.format(
+            "SELECT table_name, index_name, definition FROM %s ORDER BY table_name, index_name", registryTable()))
+        .mapToMap()
+        .list();
+    for (Map<String, Object> index : indexes) {
+      final String tableName = (String) index.get("table_name");
+      final String indexName = (String) index.get("index_name");
+      if (exists(handle, tableName, indexName)) {
+        LOGGER.info("Index {} of table {} already exists", indexName, tableName);
+      } else {
+        LOGGER.info("Creating index {} of table {}", indexName, tableName);
+        handle.execute((String) index.get("definition"));
+      }
+      handle.createUpdate(String.format("DELETE FROM %s WHERE table_name = ? AND index_name = ?", registryTable()))
+          .bind(0, tableName)
+          .bind(1, indexName)
+          .execute();
+    }
+    return indexes.size();
+  }
+
+  String registryTable() {
+    final String q = identifierQuoteCharacter;
+    return String.format("%s%s%s.%s%s%s", q, schema, q, q, REGISTRY_TABLE, q);
+  }
+
+  private void createRegistry(Handle handle) {
+    handle.execute(String.format("CREATE TABLE IF NOT EXISTS %s (table_name VARCHAR(255) NOT NULL, " +
+                                 "index_name VARCHAR(255) NOT NULL, definition TEXT NOT NULL, " +
+                                 "PRIMARY KEY (table_name, index_name))", registryTable()));
+  }
+
+  /**
+   * @return create statements of secondary indexes by index name
+   */
+  Map<String, String> secondaryIndexes(Handle handle, RelationalTable table) {
+    switch (dialect) {
+      case POSTGRES:
+        return handle.createQuery("SELECT i.relname AS index_name, pg_get_indexdef(i.oid) AS definition \n" +
+                                  "FROM pg_index x \n" +
+                                  "JOIN pg_class i ON i.oid = x.indexrelid \n" +
+                                  "JOIN pg_class t ON t.oid = x.indrelid \n" +
+                                  "JOIN pg_namespace n ON n.oid = t.relnamespace \n" +
+                                  "WHERE n.nspname = ? AND t.relname = ? AND NOT x.indisprimary \n" +
+                                  "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = x.indexrelid) \n" +
+                                  "ORDER BY i.relname")
+            .bind(0, table.schemaName())
+            .bind(1, table.tableName)
+            .reduceRows(new LinkedHashMap<>(), (indexes, row) -> {
+              indexes.put(row.getColumn("index_name", String.class), row.getColumn("definition", String.class));
+              return indexes;
+            });
+      case MYSQL:
+        return mysqlSecondaryIndexes(handle, table);
+      default:
+        throw new DebeziumException("Deferring indexes is not supported for " + dialect + " dialect!");
+    }
+  }
+
+  private Map<String, String> mysqlSecondaryIndexes(Handle handle, RelationalTable table) {
+    final String q = identifierQuoteCharacter;
+    final Set<String> foreignKeyColumns = handle.createQuery("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE " +
+                                                             "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? " +
+                                                             "AND REFERENCED_TABLE_NAME IS NOT NULL")
+        .bind(0, table.schemaName())
+        .bind(1, table.tableName)
+        .mapTo(String.class)
+        .collect(Collectors.toSet());
+    final List<Map<String, Object>> columns = handle.createQuery("SELECT INDEX_NAME, NON_UNIQUE, COLUMN_NAME, SUB_PART, " +
+                                                                 "COLLATION, INDEX_TYPE \n" +
+                                                                 "FROM INFORMATION_SCHEMA.STATISTICS \n" +
+                                                                 "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND INDEX_NAME <> 'PRIMARY' \n" +
+                                                                 "ORDER BY INDEX_NAME, SEQ_IN_INDEX")
+        .bind(0, table.schemaName())
+        .bind(1, table.tableName)
+        .mapToMap()
+        .list();
+
+    final Map<String, StringBuilder> definitions = new LinkedHashMap<>();
+    final Set<String> kept = new HashSet<>();
+    for (Map<String, Object> column : columns) {
+      final String indexName = (String) column.get("index_name");
+      final String columnName = (String) column.get("column_name");
+      if (columnName == null || foreignKeyColumns.contains(columnName)) {
+        // functional index or index used by a foreign key
+        kept.add(indexName);
+        continue;
+      }
+      StringBuilder definition = definitions.get(indexName);
+      if (definition == null) {
+        final String type = String.valueOf(column.get("index_type"));
+        final String kind = "FULLTEXT".equals(type) || "SPATIAL".equals(type) ? type + " " :
+            Integer.parseInt(String.valueOf(column.get("non_unique"))) == 0 ? "UNIQUE " : "";
+        definition = new StringBuilder(String.format("CREATE %sINDEX %s%s%s ON %s%s%s.%s%s%s (", kind,
+            q, indexName, q, q, table.schemaName(), q, q, table.tableName, q));
+        definitions.put(indexName, definition);
+      } else {
+        definition.append(", ");
+      }
+      definition.append(q).append(columnName).append(q);
+      if (column.get("sub_part") != null) {
+        definition.append('(').append(column.get("sub_part")).append(')');
+      }
+      if ("D".equals(column.get("collation"))) {
+        definition.append(" DESC");
+      }
+    }
+
+    final Map<String, String> indexes = new LinkedHashMap<>();
+    definitions.forEach((name, definition) -> {
+      if (!kept.contains(name)) {
+        indexes.put(name, definition.append(')').toString());
+      }
+    });
+    return indexes;
+  }
+
+  String dropStatement(String tableName, String indexName) {
+    final String q = identifierQuoteCharacter;
+    if (dialect == JdbcDialect.MYSQL) {
+      return String.format("DROP INDEX %s%s%s ON %s%s%s.%s%s%s", q, indexName, q, q, schema, q, q, tableName, q);
+    }
+    return String.format("DROP INDEX %s%s%s.%s%s%s", q, schema, q, q, indexName, q);
+  }
+
+  private boolean exists(Handle handle, String tableName, String indexName) {
+    final String sql = dialect == JdbcDialect.MYSQL ?
+        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND INDEX_NAME = ?" :
+        "SELECT COUNT(*) FROM pg_indexes WHERE schemaname = ? AND tablename = ? AND indexname = ?";
+    return handle.createQuery(sql)
+               .bind(0, schema)
+               .bind(1, tableName)
+               .bind(2, indexName)
+               .mapTo(Integer.class)
+               .one() > 0;
+  }
+
+}
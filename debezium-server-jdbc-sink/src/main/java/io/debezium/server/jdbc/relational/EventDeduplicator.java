@@ -0,0 +1,194 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Deduplicates events of a batch by key, keeping the latest event of each key by source timestamp then operation.
+ * Single integer keys are deduplicated with an open addressing map of primitive longs, other keys are packed to byte
+ * keys. Timestamp and operation are extracted once per event and output keeps the order of first occurrence of keys.
+ */
+final class EventDeduplicator {
+
+  private static final byte NULL = 0;
+  private static final byte LONG = 1;
+  private static final byte TEXT = 2;
+  private static final byte OTHER = 3;
+
+  private final List<JdbcChangeEvent> latest;
+  private final long[] latestTs;
+  private final int[] latestOp;
+
+  private EventDeduplicator(int size) {
+    this.latest = new ArrayList<>(size);
+    this.latestTs = new long[size];
+    this.latestOp = new int[size];
+  }
+
+  static List<JdbcChangeEvent> deduplicate(List<JdbcChangeEvent> events) {
+    if (events.size() < 2) {
+      return new ArrayList<>(events);
+    }
+    EventDeduplicator deduplicator = new EventDeduplicator(events.size());
+    return deduplicator.deduplicateLongKeys(events) ? deduplicator.latest :
+        new EventDeduplicator(events.size()).deduplicatePackedKeys(events);
+  }
+
+  /**
+   * @return false when a key is not a single integer, nothing is deduplicated then
+   */
+  private boolean deduplicateLongKeys(List<JdbcChangeEvent> events) {
+    final LongIntMap slots = new LongIntMap(events.size());
+    for (JdbcChangeEvent event : events) {
+      final JsonNode key = event.key();
+      if (key == null || key.size() != 1) {
+        return false;
+      }
+      final JsonNode value = key.elements().next();
+      if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+        return false;
+      }
+      final int slot = slots.putIfAbsent(value.longValue(), latest.size());
+      accept(slot, event);
+    }
+    return true;
+  }
+
+  private List<JdbcChangeEvent> deduplicatePackedKeys(List<JdbcChangeEvent> events) {
+    final Map<PackedKey, Integer> slots = new HashMap<>(events.size() * 2);
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+    for (JdbcChangeEvent event : events) {
+      final Integer slot = slots.putIfAbsent(new PackedKey(pack(event.key(), buffer)), latest.size());
+      accept(slot == null ? latest.size() : slot, event);
+    }
+    return latest;
+  }
+
+  /**
+   * Adds the event as a new key or replaces the latest event of the key when it's newer or equal.
+   */
+  private void accept(int slot, JdbcChangeEvent event) {
+    final long ts = event.sourceTsMs();
+    final int op = UpsertTableWriter.cdcOperations.getOrDefault(event.operation(), -1);
+    if (slot == latest.size()) {
+      latest.add(event);
+    } else if (ts < latestTs[slot] || (ts == latestTs[slot] && op < latestOp[slot])) {
+      return;
+    } else {
+      latest.set(slot, event);
+    }
+    latestTs[slot] = ts;
+    latestOp[slot] = op;
+  }
+
+  static byte[] pack(JsonNode key, ByteArrayOutputStream buffer) {
+    buffer.reset();
+    if (key == null) {
+      buffer.write(NULL);
+      return buffer.toByteArray();
+    }
+    for (Iterator<JsonNode> values = key.elements(); values.hasNext(); ) {
+      final JsonNode value = values.next();
+      if (value == null || value.isNull()) {
+        buffer.write(NULL);
+      } else if (value.isIntegralNumber() && value.canConvertToLong()) {
+        buffer.write(LONG);
+        long v = value.longValue();
+        for (int i = 7; i >= 0; i--) {
+          buffer.write((int) (v >>> (i * 8)));
+        }
+      } else {
+        buffer.write(value.isTextual() ? TEXT : OTHER);
+        final byte[] bytes = (value.isTextual() ? value.textValue() : value.toString()).getBytes(StandardCharsets.UTF_8);
+        // length prefix keeps values of composite keys apart
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+          buffer.write((length & 0x7F) | 0x80);
+          length >>>= 7;
+        }
+        buffer.write(length);
+        buffer.write(bytes, 0, bytes.length);
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+  static final class PackedKey {
+    private final byte[] bytes;
+    private final int hash;
+
+    PackedKey(byte[] bytes) {
+      this.bytes = bytes;
+      this.hash = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof PackedKey && Arrays.equals(bytes, ((PackedKey) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Open addressing map of long keys to int values with linear probing, sized for the expected number of keys.
+   */
+  static final class LongIntMap {
+    private final long[] keys;
+    private final int[] values;
+    private final boolean[] used;
+    private final int mask;
+
+    LongIntMap(int expectedSize) {
+      final int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+      this.keys = new long[capacity];
+      this.values = new int[capacity];
+      this.used = new boolean[capacity];
+      this.mask = capacity - 1;
+    }
+
+    /**
+     * @return value of the key, given value when the key is new
+     */
+    int putIfAbsent(long key, int value) {
+      int i = mix(key) & mask;
+      while (used[i]) {
+        if (keys[i] == key) {
+          return values[i];
+        }
+        i = (i + 1) & mask;
+      }
+      used[i] = true;
+      keys[i] = key;
+      values[i] = value;
+      return value;
+    }
+
+    private static int mix(long key) {
+      final long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Destination database dialect, used to generate database specific statements.
+ */
+public enum JdbcDialect {
+  POSTGRES(true, true, 32767),
+  MYSQL(true, true, 65535),
+  SQLSERVER(true, true, 2000),
+  ORACLE(true, false, 0),
+  GENERIC(false, false, 999);
+
+  private final boolean supportsUpsert;
+  private final boolean supportsStaging;
+  private final int maxBindParameters;
+
+  JdbcDialect(boolean supportsUpsert, boolean supportsStaging, int maxBindParameters) {
+    this.supportsUpsert = supportsUpsert;
+    this.supportsStaging = supportsStaging;
+    this.maxBindParameters = maxBindParameters;
+  }
+
+  /**
+   * @return true if the dialect has single statement upsert (INSERT ... ON CONFLICT, MERGE ...)
+   */
+  public boolean supportsUpsert() {
+    return supportsUpsert;
+  }
+
+  /**
+   * @return true if the dialect has session local temporary tables which can be created inside a transaction
+   */
+  public boolean supportsStaging() {
+    return supportsStaging;
+  }
+
+  /**
+   * @return maximum number of bind parameters of single statement, zero when multi row `INSERT ... VALUES` is not
+   * supported
+   */
+  public int maxBindParameters() {
+    return maxBindParameters;
+  }
+
+  public static JdbcDialect of(Jdbi jdbi) {
+    return jdbi.withHandle(handle -> of(handle.getConnection()));
+  }
+
+  /**
+   * Detects the dialect from jdbc url, falls back to database product name.
+   */
+  public static JdbcDialect of(Connection conn) {
+    try {
+      DatabaseMetaData meta = conn.getMetaData();
+      JdbcDialect dialect = fromUrl(meta.getURL());
+      if (dialect == GENERIC) {
+        dialect = fromProductName(meta.getDatabaseProductName());
+      }
+      return dialect;
+    } catch (SQLException e) {
+      throw new DebeziumException("Failed to read database metadata", e);
+    }
+  }
+
+  public static JdbcDialect fromUrl(String url) {
+    if (url == null) {
+      return GENERIC;
+    }
+    final String u = url.toLowerCase(Locale.ROOT);
+    if (u.startsWith("jdbc:postgresql:")) {
+      return POSTGRES;
+    } else if (u.startsWith("jdbc:mysql:") || u.startsWith("jdbc:mariadb:")) {
+      return MYSQL;
+    } else if (u.startsWith("jdbc:sqlserver:")) {
+      return SQLSERVER;
+    } else if (u.startsWith("jdbc:oracle:")) {
+      return ORACLE;
+    }
+    return GENERIC;
+  }
+
+  static JdbcDialect fromProductName(String productName) {
+    if (productName == null) {
+      return GENERIC;
+    }
+    final String p = productName.toLowerCase(Locale.ROOT);
+    if (p.contains("postgresql")) {
+      return POSTGRES;
+    } else if (p.contains("mysql") || p.contains("mariadb")) {
+      return MYSQL;
+    } else if (p.contains("sql server")) {
+      return SQLSERVER;
+    } else if (p.contains("oracle")) {
+      return ORACLE;
+    }
+    return GENERIC;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+
+import java.util.List;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.SqlStatement;
+
+/**
+ * Inserts events using multi row `INSERT ... VALUES (...), (...)` statements, for drivers which don't rewrite batched
+ * inserts. Rows per statement is limited by the bind parameter limit of the database. Full statements are executed as
+ * single batch, remaining rows are split to power of two row counts to keep the number of distinct statements small.
+ */
+public class MultiRowInsertTableWriter extends BaseTableWriter {
+
+  final int maxBindParameters;
+  final int maxRows;
+
+  /**
+   * @param maxBindParameters maximum number of bind parameters of single statement
+   * @param maxRows           maximum number of rows of single statement
+   */
+  public MultiRowInsertTableWriter(Jdbi jdbi, String identifierQuoteCharacter, int maxBindParameters, int maxRows) {
+    super(jdbi, identifierQuoteCharacter);
+    this.maxBindParameters = maxBindParameters;
+    this.maxRows = maxRows;
+  }
+
+  @Override
+  int insert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    final RowBinder binder = rowBinder(table);
+    return executeMultiRow(handle, events, rowsPerStatement(binder.columns().length),
+        rows -> table.preparedMultiRowInsertStatement(identifierQuoteCharacter, rows),
+        (statement, rows) -> bindRows(statement, binder, rows));
+  }
+
+  int rowsPerStatement(int columns) {
+    return Math.max(1, Math.min(maxRows, maxBindParameters / Math.max(1, columns)));
+  }
+
+  private static void bindRows(SqlStatement<?> statement, RowBinder binder, List<JdbcChangeEvent> rows) {
+    final int columns = binder.columns().length;
+    for (int i = 0; i < rows.size(); i++) {
+      binder.bind(statement, i * columns, rows.get(i).valueParser());
+    }
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.JdbcChangeEvent;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Appends events to mysql tables using `LOAD DATA LOCAL INFILE`. Rows are encoded on demand while the driver reads
+ * the input stream, nothing is written to disk. Requires `allowLoadLocalInfile=true` connection property and
+ * `local_infile` enabled on the server. `LOAD DATA LOCAL` handles errors like `IGNORE` does, duplicate keys and
+ * conversion errors only produce warnings and skip or truncate rows, so the write fails when any warning is reported or
+ * the number of loaded rows differs from the number of events.
+ */
+public class MysqlLoadDataTableWriter extends BaseTableWriter {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  public MysqlLoadDataTableWriter(Jdbi jdbi, String identifierQuoteCharacter) {
+    super(jdbi, identifierQuoteCharacter);
+  }
+
+  @Override
+  int insert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    final String sql = loadDataStatement(table);
+    try (Statement stmt = handle.getConnection().createStatement()) {
+      stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(new RowInputStream(rowBinder(table), events));
+      final int loaded = stmt.executeUpdate(sql);
+      verifyLoaded(table, events.size(), loaded, stmt.getWarnings());
+      return loaded;
+    } catch (SQLException e) {
+      throw new DebeziumException("Failed to load rows to table " + table.tableId(), e);
+    }
+  }
+
+  static void verifyLoaded(RelationalTable table, int expected, int loaded, SQLWarning warnings) {
+    if (warnings != null) {
+      StringBuilder messages = new StringBuilder();
+      int count = 0;
+      for (SQLWarning w = warnings; w != null; w = w.getNextWarning()) {
+        if (count++ < 5) {
+          messages.append(count > 1 ? "; " : "").append(w.getMessage());
+        }
+      }
+      throw new DebeziumException(String.format("Loading rows to table %s reported %d warnings, rows might be " +
+                                                "skipped or truncated: %s", table.tableId(), count, messages));
+    }
+    if (loaded != expected) {
+      throw new DebeziumException(String.format("Loaded %d of %d rows to table %s", loaded, expected,
+          table.tableId()));
+    }
+  }
+
+  /**
+   * Bit and boolean columns are loaded through user variables, text value of the column is converted to number.
+   */
+  String loadDataStatement(RelationalTable table) {
+    final String q = identifierQuoteCharacter;
+    final String[] columns = table.rowBinder().columns();
+    StringBuilder targets = new StringBuilder();
+    StringBuilder assignments = new StringBuilder();
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        targets.append(", ");
+      }
+      if (isBit(table.columns.get(columns[i]))) {
+        targets.append("@v").append(i);
+        assignments.append(assignments.length() == 0 ? " \nSET " : ", ")
+            .append(String.format("%s%s%s = CAST(@v%d AS UNSIGNED)", q, columns[i], q, i));
+      } else {
+        targets.append(String.format("%s%s%s", q, columns[i], q));
+      }
+    }
+
+    return String.format("LOAD DATA LOCAL INFILE 'stream' INTO TABLE %s%s%s.%s%s%s CHARACTER SET utf8mb4 \n" +
+                         "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' \n" +
+                         "(%s)%s",
+        q, table.schemaName(), q, q, table.tableName, q, targets, assignments);
+  }
+
+  static boolean isBit(JDBCType type) {
+    return type == JDBCType.BIT || type == JDBCType.BOOLEAN;
+  }
+
+  static void appendText(StringBuilder line, Object value) {
+    if (value == null) {
+      line.append("\\N");
+      return;
+    }
+    if (value instanceof Boolean) {
+      line.append((Boolean) value ? '1' : '0');
+      return;
+    }
+    final String text = value.toString();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\':
+          line.append("\\\\");
+          break;
+        case '\n':
+          line.append("\\n");
+          break;
+        case '\r':
+          line.append("\\r");
+          break;
+        case '\t':
+          line.append("\\t");
+          break;
+        case '\0':
+          line.append("\\0");
+          break;
+        default:
+          line.append(c);
+      }
+    }
+  }
+
+  /**
+   * Encodes rows to tab separated text while the stream is read.
+   */
+  static final class RowInputStream extends InputStream {
+    private final Iterator<JdbcChangeEvent> events;
+    private final RowBinder binder;
+    private final StringBuilder lines = new StringBuilder();
+    private byte[] buffer = new byte[0];
+    private int position;
+
+    RowInputStream(RowBinder binder, List<JdbcChangeEvent> events) {
+      this.events = events.iterator();
+      this.binder = binder;
+    }
+
+    @Override
+    public int read() {
+      if (!fill()) {
+        return -1;
+      }
+      return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.length - position);
+      System.arraycopy(buffer, position, b, off, n);
+      position += n;
+      return n;
+    }
+
+    private boolean fill() {
+      if (position < buffer.length) {
+        return true;
+      }
+      if (!events.hasNext()) {
+        return false;
+      }
+      lines.setLength(0);
+      while (events.hasNext() && lines.length() < BUFFER_SIZE) {
+        Object[] row = binder.values(events.next().valueParser());
+        for (int i = 0; i < row.length; i++) {
+          if (i > 0) {
+            lines.append('\t');
+          }
+          appendText(lines, row[i]);
+        }
+        lines.append('\n');
+      }
+      buffer = lines.toString().getBytes(StandardCharsets.UTF_8);
+      position = 0;
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.JdbcChangeEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Appends events to postgresql tables using `COPY ... FROM STDIN`. Rows are streamed to the server with the driver copy
+ * api, values are encoded directly from the event payload using the column types of the table.
+ */
+public class PostgresCopyTableWriter extends BaseTableWriter {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+  static final byte[] BINARY_HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+  // the driver reports bool and bit(n) columns alike as BIT, only their text form is compatible. Tables having
+  // BIT columns are copied in text format
+  static final EnumSet<JDBCType> BINARY_TYPES = EnumSet.of(JDBCType.SMALLINT, JDBCType.INTEGER, JDBCType.BIGINT,
+      JDBCType.REAL, JDBCType.FLOAT, JDBCType.DOUBLE, JDBCType.BOOLEAN, JDBCType.CHAR, JDBCType.VARCHAR,
+      JDBCType.LONGVARCHAR, JDBCType.NCHAR, JDBCType.NVARCHAR, JDBCType.LONGNVARCHAR);
+
+  final CopyFormat format;
+
+  public PostgresCopyTableWriter(Jdbi jdbi, String identifierQuoteCharacter, CopyFormat format) {
+    super(jdbi, identifierQuoteCharacter);
+    this.format = format;
+  }
+
+  @Override
+  int insert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    final CopyFormat tableFormat = format == CopyFormat.BINARY && !supportsBinary(table) ? CopyFormat.TEXT : format;
+    final String sql = copyStatement(table, tableFormat);
+    final RowBinder binder = rowBinder(table);
+    final JDBCType[] types = Arrays.stream(binder.columns()).map(table.columns::get).toArray(JDBCType[]::new);
+
+    PGCopyOutputStream copy = null;
+    try {
+      copy = new PGCopyOutputStream(handle.getConnection().unwrap(PGConnection.class), sql);
+      OutputStream out = new BufferedOutputStream(copy, BUFFER_SIZE);
+      if (tableFormat == CopyFormat.BINARY) {
+        writeBinary(out, binder, types, events);
+      } else {
+        writeText(out, binder, events);
+      }
+      // flush and end copy
+      out.close();
+      return events.size();
+    } catch (IOException | SQLException e) {
+      cancel(copy);
+      throw new DebeziumException("Failed to copy rows to table " + table.tableId(), e);
+    } catch (RuntimeException e) {
+      cancel(copy);
+      throw e;
+    }
+  }
+
+  /**
+   * Cancels the running copy, closing the stream would commit rows copied so far.
+   */
+  private static void cancel(PGCopyOutputStream copy) {
+    if (copy != null && copy.isActive()) {
+      try {
+        copy.cancelCopy();
+      } catch (SQLException e) {
+        LOGGER.warn("Failed to cancel copy", e);
+      }
+    }
+  }
+
+  String copyStatement(RelationalTable table, CopyFormat format) {
+    final String q = identifierQuoteCharacter;
+    return String.format("COPY %s%s%s.%s%s%s (%s) FROM STDIN WITH (FORMAT %s)",
+        q, table.schemaName(), q, q, table.tableName, q,
+        Arrays.stream(table.rowBinder().columns())
+            .map(f -> String.format("%s%s%s", q, f, q))
+            .collect(Collectors.joining(", ")),
+        format.name().toLowerCase(Locale.ROOT));
+  }
+
+  static boolean supportsBinary(RelationalTable table) {
+    return BINARY_TYPES.containsAll(table.columns.values());
+  }
+
+  private void writeText(OutputStream out, RowBinder binder, List<JdbcChangeEvent> events) throws IOException {
+    StringBuilder line = new StringBuilder();
+    for (JdbcChangeEvent e : events) {
+      line.setLength(0);
+      Object[] row = binder.values(e.valueParser());
+      for (int i = 0; i < row.length; i++) {
+        if (i > 0) {
+          line.append('\t');
+        }
+        appendText(line, row[i]);
+      }
+      line.append('\n');
+      out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  static void appendText(StringBuilder line, Object value) {
+    if (value == null) {
+      line.append("\\N");
+      return;
+    }
+    final String text = value.toString();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\':
+          line.append("\\\\");
+          break;
+        case '\n':
+          line.append("\\n");
+          break;
+        case '\r':
+          line.append("\\r");
+          break;
+        case '\t':
+          line.append("\\t");
+          break;
+        default:
+          line.append(c);
+      }
+    }
+  }
+
+  private void writeBinary(OutputStream out, RowBinder binder, JDBCType[] types, List<JdbcChangeEvent> events)
+      throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.write(BINARY_HEADER);
+    data.writeInt(0); // flags
+    data.writeInt(0); // header extension length
+    for (JdbcChangeEvent e : events) {
+      Object[] row = binder.values(e.valueParser());
+      data.writeShort(row.length);
+      for (int i = 0; i < row.length; i++) {
+        writeBinary(data, types[i], row[i], binder.columns()[i]);
+      }
+    }
+    data.writeShort(-1);
+    data.flush();
+  }
+
+  static void writeBinary(DataOutputStream data, JDBCType type, Object value, String column) throws IOException {
+    if (value == null) {
+      data.writeInt(-1);
+      return;
+    }
+    switch (type) {
+      case SMALLINT:
+        data.writeInt(2);
+        data.writeShort(number(value, column).shortValue());
+        break;
+      case INTEGER:
+        data.writeInt(4);
+        data.writeInt(number(value, column).intValue());
+        break;
+      case BIGINT:
+        data.writeInt(8);
+        data.writeLong(number(value, column).longValue());
+        break;
+      case REAL:
+        data.writeInt(4);
+        data.writeFloat(number(value, column).floatValue());
+        break;
+      case FLOAT:
+      case DOUBLE:
+        data.writeInt(8);
+        data.writeDouble(number(value, column).doubleValue());
+        break;
+      case BOOLEAN:
+        data.writeInt(1);
+        data.writeByte(Boolean.parseBoolean(value.toString()) ? 1 : 0);
+        break;
+      default:
+        byte[] text = value.toString().getBytes(StandardCharsets.UTF_8);
+        data.writeInt(text.length);
+        data.write(text);
+    }
+  }
+
+  private static Number number(Object value, String column) {
+    if (value instanceof Number) {
+      return (Number) value;
+    }
+    throw new DebeziumException("Can't write value '" + value + "' of column " + column + " as number");
+  }
+
+  public enum CopyFormat {
+    TEXT,
+    BINARY
+  }
+
+}
@@ -10,10 +10,19 @@ package io.debezium.server.jdbc.relational;
 
 import io.debezium.DebeziumException;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -21,11 +30,19 @@ import org.slf4j.LoggerFactory;
 
 public class RelationalTable {
   protected static final Logger LOGGER = LoggerFactory.getLogger(RelationalTable.class);
+  static final String STAGING_TABLE_PREFIX = "stg_";
+  // shortest identifier limit of the supported databases, postgresql 63 bytes
+  static final int MAX_IDENTIFIER_BYTES = 63;
 
   public final String tableName;
   private final String schemaName;
   public final Map<String, JDBCType> columns = new HashMap<>();
   public final Map<String, Integer> primaryKeys = new HashMap<>();
+  private final RowBinder rowBinder;
+  private final RowBinder nullMissingRowBinder;
+  private final RowBinder keyBinder;
+  // generated statements by kind and parameters, built once per table descriptor
+  private final ConcurrentHashMap<String, Object> statements = new ConcurrentHashMap<>();
 
   public RelationalTable(String schemaName, String tableName, Connection conn) throws DebeziumException {
     this.schemaName = schemaName;
@@ -33,10 +50,15 @@ public class RelationalTable {
 
     try {
       DatabaseMetaData meta = conn.getMetaData();
-      try (ResultSet tables = meta.getTables(null, this.schemaName, this.tableName, new String[]{"TABLE"})) {
+      final boolean catalogs = usesCatalogs(meta);
+      try (ResultSet tables = meta.getTables(catalogs ? this.schemaName : null, catalogs ? null : this.schemaName,
+          this.tableName, new String[]{"TABLE"})) {
 
         int numTablesFound = 0;
         while (tables != null && tables.next()) {
+          if (!inSchema(tables, this.schemaName)) {
+            continue;
+          }
           numTablesFound++;
           String catalog = tables.getString("TABLE_CAT");
           String schema = tables.getString("TABLE_SCHEM");
@@ -72,20 +94,151 @@ public class RelationalTable {
     } catch (SQLException e) {
       throw new DebeziumException("Failed to read table from database", e);
     }
+
+    this.rowBinder = new RowBinder(columns.keySet());
+    this.nullMissingRowBinder = new RowBinder(columns.keySet(), true);
+    this.keyBinder = new RowBinder(primaryKeys.keySet());
+  }
+
+  public RelationalTable(String schemaName, String tableName, Map<String, JDBCType> columns,
+                         Map<String, Integer> primaryKeys) {
+    this.schemaName = schemaName;
+    this.tableName = tableName;
+    this.columns.putAll(columns);
+    this.primaryKeys.putAll(primaryKeys);
+    this.rowBinder = new RowBinder(this.columns.keySet());
+    this.nullMissingRowBinder = new RowBinder(this.columns.keySet(), true);
+    this.keyBinder = new RowBinder(this.primaryKeys.keySet());
+  }
+
+  /**
+   * Reads all tables of the schema using bulk metadata queries instead of querying metadata table by table.
+   *
+   * @return tables of the schema by table name
+   */
+  public static Map<String, RelationalTable> loadAll(String schemaName, Connection conn) throws DebeziumException {
+    Map<String, Map<String, JDBCType>> columns = new HashMap<>();
+    Map<String, Map<String, Integer>> primaryKeys = new HashMap<>();
+
+    try {
+      DatabaseMetaData meta = conn.getMetaData();
+      final String catalog = usesCatalogs(meta) ? schemaName : null;
+      final String schemaPattern = catalog == null ? schemaName : null;
+      try (ResultSet tables = meta.getTables(catalog, schemaPattern, "%", new String[]{"TABLE"})) {
+        while (tables != null && tables.next()) {
+          if (inSchema(tables, schemaName)) {
+            columns.put(tables.getString("TABLE_NAME"), new HashMap<>());
+            primaryKeys.put(tables.getString("TABLE_NAME"), new HashMap<>());
+          }
+        }
+      }
+
+      // get Columns of all tables
+      try (ResultSet tColumns = meta.getColumns(catalog, schemaPattern, "%", "%")) {
+        while (tColumns.next()) {
+          if (!inSchema(tColumns, schemaName)) {
+            continue;
+          }
+          Map<String, JDBCType> tableColumns = columns.get(tColumns.getString("TABLE_NAME"));
+          if (tableColumns != null) {
+            tableColumns.put(tColumns.getString("COLUMN_NAME"), JDBCType.valueOf(tColumns.getInt("DATA_TYPE")));
+          }
+        }
+      }
+
+      // get PK of all tables
+      try (PreparedStatement stmt = conn.prepareStatement(
+          "SELECT kcu.table_name, kcu.column_name, kcu.ordinal_position \n" +
+          "FROM information_schema.table_constraints tc \n" +
+          "JOIN information_schema.key_column_usage kcu \n" +
+          "    ON tc.constraint_name = kcu.constraint_name \n" +
+          "    AND tc.table_schema = kcu.table_schema \n" +
+          "    AND tc.table_name = kcu.table_name \n" +
+          "WHERE tc.constraint_type = 'PRIMARY KEY' AND tc.table_schema = ?")) {
+        stmt.setString(1, schemaName);
+        try (ResultSet pKeys = stmt.executeQuery()) {
+          while (pKeys.next()) {
+            Map<String, Integer> tablePKeys = primaryKeys.get(pKeys.getString(1));
+            if (tablePKeys != null) {
+              tablePKeys.put(pKeys.getString(2), pKeys.getInt(3));
+            }
+          }
+        }
+      } catch (SQLException e) {
+        LOGGER.warn("Failed to read primary keys from information_schema, reading them table by table", e);
+        for (Map.Entry<String, Map<String, Integer>> tablePKeys : primaryKeys.entrySet()) {
+          tablePKeys.getValue().clear();
+          try (ResultSet pKeys = meta.getPrimaryKeys(catalog, schemaPattern, tablePKeys.getKey())) {
+            while (pKeys.next()) {
+              tablePKeys.getValue().put(pKeys.getString("COLUMN_NAME"), pKeys.getInt("KEY_SEQ"));
+            }
+          }
+        }
+      }
+
+    } catch (SQLException e) {
+      throw new DebeziumException("Failed to read tables from database", e);
+    }
+
+    Map<String, RelationalTable> tables = new HashMap<>();
+    columns.forEach((tableName, tableColumns) ->
+        tables.put(tableName, new RelationalTable(schemaName, tableName, tableColumns, primaryKeys.get(tableName))));
+    return tables;
   }
 
   public boolean hasPK() {
     return !primaryKeys.isEmpty();
   }
 
+  public String schemaName() {
+    return schemaName;
+  }
+
+  public RowBinder rowBinder() {
+    return rowBinder;
+  }
+
+  /**
+   * @param nullMissing binder writing columns missing from the payload as null, instead of failing the row
+   */
+  public RowBinder rowBinder(boolean nullMissing) {
+    return nullMissing ? nullMissingRowBinder : rowBinder;
+  }
+
+  public RowBinder keyBinder() {
+    return keyBinder;
+  }
+
   public String tableId() {
     return String.format("%s.%s", schemaName, tableName);
   }
 
+  /**
+   * Statement of the key, built on first use. Not using computeIfAbsent since statements are built from other cached
+   * statements.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T cached(String key, Supplier<T> statement) {
+    Object sql = statements.get(key);
+    if (sql == null) {
+      sql = statement.get();
+      final Object existing = statements.putIfAbsent(key, sql);
+      if (existing != null) {
+        sql = existing;
+      }
+    }
+    return (T) sql;
+  }
+
   public String preparedInsertStatement(String identifierQuoteCharacter) {
+    return cached("insert:" + identifierQuoteCharacter, () -> preparedInsertStatement(identifierQuoteCharacter,
+        String.format("%s%s%s.%s%s%s", identifierQuoteCharacter, schemaName, identifierQuoteCharacter,
+            identifierQuoteCharacter, tableName, identifierQuoteCharacter)));
+  }
+
+  private String preparedInsertStatement(String identifierQuoteCharacter, String table) {
     StringBuilder sql = new StringBuilder();
-    sql.append(String.format("INSERT INTO %s%s%s.%s%s%s \n",
-        identifierQuoteCharacter, schemaName, identifierQuoteCharacter, identifierQuoteCharacter, tableName, identifierQuoteCharacter));
+    sql.append(String.format("INSERT INTO %s \n", table));
 
     Set<String> fields = this.columns.keySet();
 
@@ -102,24 +255,363 @@ public class RelationalTable {
     return sql.toString().trim();
   }
 
+  /**
+   * Insert statement of given number of rows with positional parameters, `INSERT ... VALUES (?, ?), (?, ?)`. Parameters
+   * are in {@link #rowBinder()} column order. Statements are cached per row count, writers use few distinct row counts
+   * so the same statement text is reused and prepared statement caches of the driver stay effective.
+   */
+  public String preparedMultiRowInsertStatement(String identifierQuoteCharacter, int rows) {
+    return cached("multi-row-insert:" + identifierQuoteCharacter + rows, () -> {
+      final String q = identifierQuoteCharacter;
+      final String[] fields = rowBinder.columns();
+      final String row = "(" + String.join(", ", Collections.nCopies(fields.length, "?")) + ")";
+      return String.format("INSERT INTO %s%s%s.%s%s%s \n(%s) \nVALUES %s",
+          q, schemaName, q, q, tableName, q,
+          Arrays.stream(fields)
+              .map(f -> String.format("%s%s%s", q, f, q))
+              .collect(Collectors.joining(", ")),
+          String.join(", ", Collections.nCopies(rows, row)));
+    });
+  }
+
   public String preparedDeleteStatement(String identifierQuoteCharacter) {
 
     if (!hasPK()) {
       throw new DebeziumException("Cant delete from a table without primary key!");
     }
 
-    StringBuilder sql = new StringBuilder();
-    sql.append(String.format("DELETE FROM %s%s%s.%s%s%s \nWHERE ",
-        identifierQuoteCharacter, schemaName, identifierQuoteCharacter, identifierQuoteCharacter, tableName, identifierQuoteCharacter));
+    return cached("delete:" + identifierQuoteCharacter, () -> {
+      StringBuilder sql = new StringBuilder();
+      sql.append(String.format("DELETE FROM %s%s%s.%s%s%s \nWHERE ",
+          identifierQuoteCharacter, schemaName, identifierQuoteCharacter, identifierQuoteCharacter, tableName, identifierQuoteCharacter));
 
-    Set<String> fields = this.primaryKeys.keySet();
+      Set<String> fields = this.primaryKeys.keySet();
 
-    sql.append(String.format("%s \n",
-        fields.stream()
-            .map(f -> String.format("%s%s%s = :%s ", identifierQuoteCharacter, f, identifierQuoteCharacter, f))
-            .collect(Collectors.joining("\n    AND "))));
+      sql.append(String.format("%s \n",
+          fields.stream()
+              .map(f -> String.format("%s%s%s = :%s ", identifierQuoteCharacter, f, identifierQuoteCharacter, f))
+              .collect(Collectors.joining("\n    AND "))));
+
+      return sql.toString().trim();
+    });
+  }
+
+  /**
+   * @return true if many keys can be deleted with single statement, composite keys need row value or `VALUES` list
+   * support which is not assumed for generic databases
+   */
+  public boolean supportsSetDelete(JdbcDialect dialect) {
+    return hasPK() && dialect.maxBindParameters() > 0 && (primaryKeys.size() == 1 || dialect != JdbcDialect.GENERIC);
+  }
+
+  /**
+   * Delete statement of given number of keys with positional parameters in {@link #keyBinder()} column order.
+   * `DELETE ... WHERE pk IN (?, ?)` for single column keys, `DELETE ... WHERE (pk1, pk2) IN ((?, ?), (?, ?))` for
+   * composite keys and join with `VALUES` list for sql server which doesn't support row value comparison.
+   */
+  public String preparedSetDeleteStatement(String identifierQuoteCharacter, JdbcDialect dialect, int keys) {
+
+    if (!supportsSetDelete(dialect)) {
+      throw new DebeziumException("Set based delete is not supported for table " + tableId() + " with " + dialect + " dialect!");
+    }
+
+    return cached("set-delete:" + dialect + identifierQuoteCharacter + keys, () -> {
+      final String q = identifierQuoteCharacter;
+      final String[] fields = keyBinder.columns();
+      final String table = String.format("%s%s%s.%s%s%s", q, schemaName, q, q, tableName, q);
+      final String columns = Arrays.stream(fields)
+          .map(f -> String.format("%s%s%s", q, f, q))
+          .collect(Collectors.joining(", "));
+      final String row = "(" + String.join(", ", Collections.nCopies(fields.length, "?")) + ")";
+
+      if (fields.length == 1) {
+        return String.format("DELETE FROM %s \nWHERE %s IN (%s)", table, columns,
+            String.join(", ", Collections.nCopies(keys, "?")));
+      }
+      if (dialect == JdbcDialect.SQLSERVER) {
+        return String.format("DELETE tgt FROM %s tgt \nINNER JOIN (VALUES %s) AS src (%s) \nON %s", table,
+            String.join(", ", Collections.nCopies(keys, row)), columns,
+            Arrays.stream(fields)
+                .map(f -> String.format("tgt.%s%s%s = src.%s%s%s", q, f, q, q, f, q))
+                .collect(Collectors.joining(" AND ")));
+      }
+      return String.format("DELETE FROM %s \nWHERE (%s) IN (%s)", table, columns,
+          String.join(", ", Collections.nCopies(keys, row)));
+    });
+  }
+
+  /**
+   * Postgresql delete of all keys with single array parameter, `DELETE ... WHERE pk = ANY(?)`. Only for single column
+   * keys having {@link #postgresArrayType(JDBCType)}.
+   */
+  public String preparedArrayDeleteStatement(String identifierQuoteCharacter) {
+    if (!hasPK() || keyBinder.columns().length != 1) {
+      throw new DebeziumException("Array delete requires single column primary key, table " + tableId() +
+                                  " has key " + primaryKeys.keySet() + "!");
+    }
+    final String q = identifierQuoteCharacter;
+    return cached("array-delete:" + q, () -> String.format("DELETE FROM %s%s%s.%s%s%s \nWHERE %s%s%s = ANY(?)",
+        q, schemaName, q, q, tableName, q, q, keyBinder.columns()[0], q));
+  }
+
+  /**
+   * @return postgresql array element type of the single column key, null when the key can't be bound as array
+   */
+  public String postgresArrayType() {
+    return keyBinder.columns().length == 1 ? postgresArrayType(columns.get(keyBinder.columns()[0])) : null;
+  }
+
+  /**
+   * Converts the key value to the element type of the array, elements follow the column type instead of the type the
+   * json value was read as, e.g. `1.0` of a bigint key.
+   */
+  static Object postgresArrayElement(String arrayType, Object value) {
+    if (value == null) {
+      return null;
+    }
+    switch (arrayType) {
+      case "int2":
+      case "int4":
+      case "int8":
+        return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString().trim());
+      case "numeric":
+        return new BigDecimal(value.toString().trim());
+      default:
+        return value.toString();
+    }
+  }
+
+  static String postgresArrayType(JDBCType type) {
+    if (type == null) {
+      return null;
+    }
+    switch (type) {
+      case SMALLINT:
+        return "int2";
+      case INTEGER:
+        return "int4";
+      case BIGINT:
+        return "int8";
+      case NUMERIC:
+      case DECIMAL:
+        return "numeric";
+      case CHAR:
+      case VARCHAR:
+      case LONGVARCHAR:
+      case NCHAR:
+      case NVARCHAR:
+      case LONGNVARCHAR:
+        return "text";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Single statement upsert using primary key, `INSERT ... ON CONFLICT` for postgres, `INSERT ... ON DUPLICATE KEY
+   * UPDATE` for mysql and `MERGE` for sql server and oracle.
+   */
+  public String preparedUpsertStatement(String identifierQuoteCharacter, JdbcDialect dialect) {
+
+    if (!hasPK()) {
+      throw new DebeziumException("Cant upsert to a table without primary key!");
+    }
+
+    return cached("upsert:" + dialect + identifierQuoteCharacter, () -> upsertStatement(identifierQuoteCharacter, dialect));
+  }
+
+  private String upsertStatement(String identifierQuoteCharacter, JdbcDialect dialect) {
+    final String q = identifierQuoteCharacter;
+    Set<String> pkFields = this.primaryKeys.keySet();
+    Set<String> updateFields = this.columns.keySet().stream()
+        .filter(f -> !pkFields.contains(f))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    StringBuilder sql = new StringBuilder();
+    switch (dialect) {
+      case POSTGRES:
+        sql.append(preparedInsertStatement(q));
+        sql.append(String.format("\nON CONFLICT (%s) \n",
+            pkFields.stream()
+                .map(f -> String.format("%s%s%s", q, f, q))
+                .collect(Collectors.joining(", "))));
+        if (updateFields.isEmpty()) {
+          sql.append("DO NOTHING");
+        } else {
+          sql.append(String.format("DO UPDATE SET %s",
+              updateFields.stream()
+                  .map(f -> String.format("%s%s%s = EXCLUDED.%s%s%s", q, f, q, q, f, q))
+                  .collect(Collectors.joining(", "))));
+        }
+        break;
+      case MYSQL:
+        sql.append(preparedInsertStatement(q));
+        sql.append(String.format("\nON DUPLICATE KEY UPDATE %s",
+            (updateFields.isEmpty() ? pkFields : updateFields).stream()
+                .map(f -> String.format("%s%s%s = VALUES(%s%s%s)", q, f, q, q, f, q))
+                .collect(Collectors.joining(", "))));
+        break;
+      case SQLSERVER:
+      case ORACLE:
+        final boolean oracle = dialect == JdbcDialect.ORACLE;
+        Set<String> fields = this.columns.keySet();
+        sql.append(String.format("MERGE INTO %s%s%s.%s%s%s %stgt \n", q, schemaName, q, q, tableName, q, oracle ? "" : "AS "));
+        sql.append(String.format("USING (SELECT %s%s) %ssrc \n",
+            fields.stream()
+                .map(f -> String.format(":%s AS %s%s%s", f, q, f, q))
+                .collect(Collectors.joining(", ")),
+            oracle ? " FROM dual" : "",
+            oracle ? "" : "AS "));
+        sql.append(String.format("ON (%s) \n",
+            pkFields.stream()
+                .map(f -> String.format("tgt.%s%s%s = src.%s%s%s", q, f, q, q, f, q))
+                .collect(Collectors.joining(" AND "))));
+        if (!updateFields.isEmpty()) {
+          sql.append(String.format("WHEN MATCHED THEN UPDATE SET %s \n",
+              updateFields.stream()
+                  .map(f -> String.format("tgt.%s%s%s = src.%s%s%s", q, f, q, q, f, q))
+                  .collect(Collectors.joining(", "))));
+        }
+        sql.append(String.format("WHEN NOT MATCHED THEN INSERT (%s) VALUES (%s)%s",
+            fields.stream()
+                .map(f -> String.format("%s%s%s", q, f, q))
+                .collect(Collectors.joining(", ")),
+            fields.stream()
+                .map(f -> String.format("src.%s%s%s", q, f, q))
+                .collect(Collectors.joining(", ")),
+            oracle ? "" : ";"));
+        break;
+      default:
+        throw new DebeziumException("Upsert statement is not supported for " + dialect + " dialect!");
+    }
 
     return sql.toString().trim();
   }
 
-}
\ No newline at end of file
+  /**
+   * MySQL reports databases as catalogs, metadata of the target schema is read by catalog there.
+   */
+  static boolean usesCatalogs(DatabaseMetaData meta) throws SQLException {
+    return !meta.supportsSchemasInTableDefinitions() && meta.supportsCatalogsInTableDefinitions();
+  }
+
+  /**
+   * Metadata patterns match other schemas too, like same named tables of other MySQL databases or `_` matching any
+   * character, rows are checked against the schema.
+   */
+  static boolean inSchema(ResultSet metadata, String schemaName) throws SQLException {
+    final String schema = metadata.getString("TABLE_SCHEM");
+    return schemaName.equalsIgnoreCase(schema != null ? schema : metadata.getString("TABLE_CAT"));
+  }
+
+  /**
+   * Name of the session local staging table of the table, sql server temporary tables are prefixed with `#`. Names
+   * exceeding the identifier limit are shortened keeping a hash of the table name, databases would truncate them
+   * silently or fail.
+   */
+  public String stagingTableName(JdbcDialect dialect) {
+    final String prefix = (dialect == JdbcDialect.SQLSERVER ? "#" : "") + STAGING_TABLE_PREFIX;
+    final String name = prefix + tableName;
+    if (name.getBytes(StandardCharsets.UTF_8).length <= MAX_IDENTIFIER_BYTES) {
+      return name;
+    }
+    final String hash = String.format("_%08x", tableName.hashCode());
+    String shortened = name;
+    while ((shortened + hash).getBytes(StandardCharsets.UTF_8).length > MAX_IDENTIFIER_BYTES) {
+      shortened = shortened.substring(0, shortened.offsetByCodePoints(shortened.length(), -1));
+    }
+    return shortened + hash;
+  }
+
+  /**
+   * Creates the staging table having the same columns as the table, statement does nothing when staging table already
+   * exists in the session.
+   */
+  public String createStagingTableStatement(String identifierQuoteCharacter, JdbcDialect dialect) {
+    return cached("create-staging:" + dialect + identifierQuoteCharacter,
+        () -> createStagingTable(identifierQuoteCharacter, dialect));
+  }
+
+  private String createStagingTable(String identifierQuoteCharacter, JdbcDialect dialect) {
+    final String q = identifierQuoteCharacter;
+    final String staging = q + stagingTableName(dialect) + q;
+    final String table = String.format("%s%s%s.%s%s%s", q, schemaName, q, q, tableName, q);
+    switch (dialect) {
+      case POSTGRES:
+        return String.format("CREATE TEMP TABLE IF NOT EXISTS %s (LIKE %s) ON COMMIT DELETE ROWS", staging, table);
+      case MYSQL:
+        return String.format("CREATE TEMPORARY TABLE IF NOT EXISTS %s LIKE %s", staging, table);
+      case SQLSERVER:
+        // UNION ALL prevents copying identity property of the columns
+        return String.format("IF OBJECT_ID('tempdb..%s') IS NULL \n" +
+                             "SELECT * INTO %s FROM %s WHERE 1 = 0 \nUNION ALL SELECT * FROM %s WHERE 1 = 0",
+            stagingTableName(dialect), staging, table, table);
+      default:
+        throw new DebeziumException("Staging table is not supported for " + dialect + " dialect!");
+    }
+  }
+
+  /**
+   * Removes rows left in the staging table, like the rows of a failed batch written in a caller managed transaction.
+   */
+  public String clearStagingTableStatement(String identifierQuoteCharacter, JdbcDialect dialect) {
+    return cached("clear-staging:" + dialect + identifierQuoteCharacter, () -> String.format("DELETE FROM %s",
+        identifierQuoteCharacter + stagingTableName(dialect) + identifierQuoteCharacter));
+  }
+
+  public String preparedStagingInsertStatement(String identifierQuoteCharacter, JdbcDialect dialect) {
+    return cached("staging-insert:" + dialect + identifierQuoteCharacter, () -> preparedInsertStatement(
+        identifierQuoteCharacter, identifierQuoteCharacter + stagingTableName(dialect) + identifierQuoteCharacter));
+  }
+
+  /**
+   * Set based statements applying the rows of staging table to the table: delete of the existing rows using primary
+   * key, insert of all staged rows and, when the database doesn't clear it at commit, cleanup of the staging table.
+   */
+  public List<String> stagingMergeStatements(String identifierQuoteCharacter, JdbcDialect dialect) {
+
+    if (!hasPK()) {
+      throw new DebeziumException("Cant merge to a table without primary key!");
+    }
+
+    return cached("staging-merge:" + dialect + identifierQuoteCharacter,
+        () -> stagingMerge(identifierQuoteCharacter, dialect));
+  }
+
+  private List<String> stagingMerge(String identifierQuoteCharacter, JdbcDialect dialect) {
+    final String q = identifierQuoteCharacter;
+    final String staging = q + stagingTableName(dialect) + q;
+    final String table = String.format("%s%s%s.%s%s%s", q, schemaName, q, q, tableName, q);
+    final String joinCondition = this.primaryKeys.keySet().stream()
+        .map(f -> String.format("tgt.%s%s%s = src.%s%s%s", q, f, q, q, f, q))
+        .collect(Collectors.joining(" AND "));
+    final String fields = this.columns.keySet().stream()
+        .map(f -> String.format("%s%s%s", q, f, q))
+        .collect(Collectors.joining(", "));
+
+    List<String> merge = new ArrayList<>();
+    switch (dialect) {
+      case POSTGRES:
+        merge.add(String.format("DELETE FROM %s tgt \nUSING %s src \nWHERE %s", table, staging, joinCondition));
+        break;
+      case MYSQL:
+      case SQLSERVER:
+        merge.add(String.format("DELETE tgt FROM %s tgt \nINNER JOIN %s src ON %s", table, staging, joinCondition));
+        break;
+      default:
+        throw new DebeziumException("Staging table is not supported for " + dialect + " dialect!");
+    }
+    merge.add(String.format("INSERT INTO %s (%s) \nSELECT %s FROM %s", table, fields, fields, staging));
+    if (dialect != JdbcDialect.POSTGRES) {
+      merge.add(String.format("DELETE FROM %s", staging));
+    }
+    return List.copyOf(merge);
+  }
+
+  public String dropStagingTableStatement(String identifierQuoteCharacter, JdbcDialect dialect) {
+    final String staging = identifierQuoteCharacter + stagingTableName(dialect) + identifierQuoteCharacter;
+    return String.format(dialect == JdbcDialect.MYSQL ? "DROP TEMPORARY TABLE IF EXISTS %s" : "DROP TABLE IF EXISTS %s",
+        staging);
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.util.Clock;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches table metadata read from the database. Cached table is reloaded when the event structure of the table changes,
+ * when it's invalidated explicitly after a failed write, or when it's older than the configured ttl. Event structure is
+ * the event schema, or the value and key field names of the events when schemas are disabled.
+ */
+public class RelationalTableCache {
+  protected static final Logger LOGGER = LoggerFactory.getLogger(RelationalTableCache.class);
+
+  private final ConcurrentHashMap<String, CachedTable> tables = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final long ttlMs;
+  private final Clock clock;
+
+  /**
+   * @param ttlMs maximum age of the cached table metadata, zero or negative value disables expiration
+   */
+  public RelationalTableCache(long ttlMs, Clock clock) {
+    this.ttlMs = ttlMs;
+    this.clock = clock;
+  }
+
+  public RelationalTable get(String schemaName, String tableName, Object eventStructure,
+                             Supplier<RelationalTable> loader) {
+    final String key = tableId(schemaName, tableName);
+    final long now = clock.currentTimeInMillis();
+    CachedTable cached = tables.get(key);
+    if (cached != null && cached.isValid(eventStructure, now)) {
+      hits.incrementAndGet();
+      if (cached.eventStructure == null) {
+        // preloaded table, bind it to the event structure of the first batch
+        tables.replace(key, cached, new CachedTable(cached.table, eventStructure, cached.loadedAt));
+      }
+      return cached.table;
+    }
+
+    misses.incrementAndGet();
+    LOGGER.debug("Loading table metadata of {}", key);
+    RelationalTable table = loader.get();
+    tables.put(key, new CachedTable(table, eventStructure, now));
+    return table;
+  }
+
+  /**
+   * Adds preloaded table, it's used for any event structure until the first lookup.
+   */
+  public void put(RelationalTable table) {
+    tables.put(table.tableId(), new CachedTable(table, null, clock.currentTimeInMillis()));
+  }
+
+  public void invalidate(RelationalTable table) {
+    LOGGER.info("Invalidating cached table metadata of {}", table.tableId());
+    tables.remove(table.tableId());
+  }
+
+  public void invalidateAll() {
+    tables.clear();
+  }
+
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+
+  public int size() {
+    return tables.size();
+  }
+
+  /**
+   * Checks if the write failed because the table metadata is stale, like unknown or missing column errors.
+   * SQLSTATE class 42 is syntax error or access rule violation.
+   */
+  public static boolean isColumnMismatch(Throwable error) {
+    for (Throwable t = error; t != null; t = t.getCause()) {
+      if (t instanceof SQLException) {
+        for (SQLException e = (SQLException) t; e != null; e = e.getNextException()) {
+          if (e.getSQLState() != null && e.getSQLState().startsWith("42")) {
+            return true;
+          }
+        }
+      }
+      if (t.getCause() == t) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return event schema, or the value and key field names of the event when schemas are disabled. Field names change
+   * when the source table is altered, like a column added to it
+   */
+  public static Object eventStructure(JdbcChangeEvent event, boolean eventSchemaEnabled) {
+    if (eventSchemaEnabled) {
+      return event.schema();
+    }
+    return List.of(event.valueFieldNames(), event.keyFieldNames());
+  }
+
+  static String tableId(String schemaName, String tableName) {
+    return String.format("%s.%s", schemaName, tableName);
+  }
+
+  private final class CachedTable {
+    final RelationalTable table;
+    final Object eventStructure;
+    final long loadedAt;
+
+    CachedTable(RelationalTable table, Object eventStructure, long loadedAt) {
+      this.table = table;
+      this.eventStructure = eventStructure;
+      this.loadedAt = loadedAt;
+    }
+
+    boolean isValid(Object structure, long now) {
+      return (eventStructure == null || Objects.equals(eventStructure, structure))
+             && (ttlMs <= 0 || now - loadedAt < ttlMs);
+    }
+  }
+
+}
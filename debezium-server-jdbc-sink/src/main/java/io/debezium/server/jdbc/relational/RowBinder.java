@@ -0,0 +1,159 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.JdbcChangeConsumer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.SqlStatement;
+
+/**
+ * Binds event payload to a prepared statement without building intermediate json tree or map. Payload tokens are read
+ * with {@link JsonParser} and values are written directly to a column ordered array.
+ * Binder is compiled once per table from its columns.
+ */
+public class RowBinder {
+
+  private final String[] columns;
+  private final Map<String, Integer> columnIndex;
+  private final boolean nullMissing;
+
+  public RowBinder(Collection<String> columns) {
+    this(columns, false);
+  }
+
+  /**
+   * @param nullMissing columns not found in the payload are bound as null, otherwise the payload is rejected
+   */
+  public RowBinder(Collection<String> columns, boolean nullMissing) {
+    this.nullMissing = nullMissing;
+    this.columns = columns.toArray(new String[0]);
+    this.columnIndex = new HashMap<>(this.columns.length * 2);
+    for (int i = 0; i < this.columns.length; i++) {
+      columnIndex.put(this.columns[i], i);
+    }
+  }
+
+  public String[] columns() {
+    return columns;
+  }
+
+  /**
+   * Reads json object from the parser and returns its values in column order. Fields which are not table columns are
+   * skipped, columns not found in the payload fail the row unless they are bound as null.
+   */
+  public Object[] row(JsonParser parser) throws IOException {
+    Object[] row = new Object[columns.length];
+    final boolean[] found = nullMissing ? null : new boolean[columns.length];
+    int numFound = 0;
+    JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new DebeziumException("Expecting json object payload, found: " + token);
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      Integer idx = columnIndex.get(parser.getCurrentName());
+      parser.nextToken();
+      if (idx == null) {
+        parser.skipChildren();
+      } else {
+        row[idx] = value(parser);
+        if (found != null && !found[idx]) {
+          found[idx] = true;
+          numFound++;
+        }
+      }
+    }
+    if (found != null && numFound < columns.length) {
+      List<String> missing = new ArrayList<>();
+      for (int i = 0; i < columns.length; i++) {
+        if (!found[i]) {
+          missing.add(columns[i]);
+        }
+      }
+      throw new DebeziumException("Event payload is missing columns " + missing + "! Set " +
+                                  "`debezium.sink.jdbc.bind-missing-columns-as-null` to true to write them as null.");
+    }
+    return row;
+  }
+
+  /**
+   * Same as {@link #row(JsonParser)}, closes the parser after reading it.
+   */
+  public Object[] values(JsonParser parser) {
+    try (parser) {
+      return row(parser);
+    } catch (IOException e) {
+      throw new DebeziumException("Failed to read event payload", e);
+    }
+  }
+
+  /**
+   * Binds the payload as new row of the batch.
+   */
+  public void add(PreparedBatch batch, JsonParser parser) {
+    final Object[] row = values(parser);
+    for (int i = 0; i < columns.length; i++) {
+      batch.bind(columns[i], row[i]);
+    }
+    batch.add();
+  }
+
+  /**
+   * Binds the payload to positional parameters starting at the given position, used by multi row statements.
+   */
+  public void bind(SqlStatement<?> statement, int position, JsonParser parser) {
+    final Object[] row = values(parser);
+    for (int i = 0; i < columns.length; i++) {
+      statement.bind(position + i, row[i]);
+    }
+  }
+
+  private static Object value(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_EMBEDDED_OBJECT:
+        return parser.getEmbeddedObject();
+      case START_OBJECT:
+      case START_ARRAY:
+        // nested values are persisted as json string
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = JdbcChangeConsumer.mapper.getFactory().createGenerator(json)) {
+          generator.copyCurrentStructure(parser);
+        }
+        return json.toString();
+      default:
+        throw new DebeziumException("Unexpected json token: " + parser.currentToken());
+    }
+  }
+
+}
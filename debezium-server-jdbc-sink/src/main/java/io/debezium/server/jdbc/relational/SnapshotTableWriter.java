@@ -0,0 +1,201 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Writer used while the source snapshot is running. Snapshot read events (`r`) of tables which were empty when the
+ * snapshot started are appended with the bulk writer, skipping the delete and deduplication of upsert mode. Other events,
+ * and snapshot events of tables having rows already, like after a restart in the middle of the snapshot, are written with
+ * the regular writer. Optionally secondary indexes of bulk loaded tables are dropped before the first write and created
+ * again with {@link #complete()}, which also updates table statistics.
+ */
+public class SnapshotTableWriter extends BaseTableWriter {
+
+  static final String SNAPSHOT_READ = "r";
+
+  private final BaseTableWriter writer;
+  private final BaseTableWriter bulkWriter;
+  private final JdbcDialect dialect;
+  private final DeferredIndexes deferredIndexes;
+  private final boolean analyze;
+  // bulk loaded state of tables, true when the table was empty at its first snapshot write
+  private final Map<String, Boolean> bulkLoaded = new ConcurrentHashMap<>();
+  private final Set<RelationalTable> loadedTables = ConcurrentHashMap.newKeySet();
+  private volatile boolean restorePending;
+
+  /**
+   * @param writer          writer of the regular events
+   * @param bulkWriter      writer appending snapshot events
+   * @param deferredIndexes drops and creates secondary indexes, null to keep indexes during the snapshot
+   * @param analyze         updates statistics of bulk loaded tables after the snapshot
+   */
+  public SnapshotTableWriter(Jdbi jdbi, String identifierQuoteCharacter, BaseTableWriter writer,
+                             BaseTableWriter bulkWriter, JdbcDialect dialect, DeferredIndexes deferredIndexes,
+                             boolean analyze) {
+    super(jdbi, identifierQuoteCharacter);
+    this.writer = writer;
+    this.bulkWriter = bulkWriter;
+    this.dialect = dialect;
+    this.deferredIndexes = deferredIndexes;
+    this.analyze = analyze;
+    // indexes left over by a previous run are restored with the first completion
+    this.restorePending = deferredIndexes != null;
+  }
+
+  @Override
+  public void addToTable(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    if (!isBulkLoaded(table, events)) {
+      writer.addToTable(table, events);
+      return;
+    }
+    for (List<JdbcChangeEvent> run : runs(events)) {
+      if (isSnapshotRead(run.get(0))) {
+        bulkWriter.addToTable(table, run);
+      } else {
+        writer.addToTable(table, run);
+      }
+    }
+  }
+
+  @Override
+  public void addToTable(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    if (!isBulkLoaded(table, events)) {
+      writer.addToTable(handle, table, events);
+      return;
+    }
+    for (List<JdbcChangeEvent> run : runs(events)) {
+      if (isSnapshotRead(run.get(0))) {
+        bulkWriter.addToTable(handle, table, run);
+      } else {
+        writer.addToTable(handle, table, run);
+      }
+    }
+  }
+
+  /**
+   * Checks once per table whether its snapshot events can be bulk loaded, secondary indexes of the table are dropped
+   * when it's empty.
+   */
+  boolean isBulkLoaded(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    if (events.stream().noneMatch(SnapshotTableWriter::isSnapshotRead)) {
+      return false;
+    }
+    final Boolean loaded = bulkLoaded.get(table.tableId());
+    if (loaded != null) {
+      return loaded;
+    }
+    synchronized (bulkLoaded) {
+      if (bulkLoaded.containsKey(table.tableId())) {
+        return bulkLoaded.get(table.tableId());
+      }
+      final boolean empty = jdbi.withHandle(handle -> {
+        if (!isEmpty(handle, table)) {
+          LOGGER.info("Table {} has rows, snapshot events are written with the regular writer", table.tableId());
+          return false;
+        }
+        LOGGER.info("Bulk loading snapshot events of table {}", table.tableId());
+        if (deferredIndexes != null) {
+          deferredIndexes.drop(handle, table);
+        }
+        return true;
+      });
+      if (empty) {
+        loadedTables.add(table);
+      }
+      bulkLoaded.put(table.tableId(), empty);
+      return empty;
+    }
+  }
+
+  private boolean isEmpty(Handle handle, RelationalTable table) {
+    final String q = identifierQuoteCharacter;
+    return handle.createQuery(String.format("SELECT 1 FROM %s%s%s.%s%s%s", q, table.schemaName(), q, q,
+            table.tableName, q))
+        .setMaxRows(1)
+        .mapTo(Integer.class)
+        .findFirst()
+        .isEmpty();
+  }
+
+  /**
+   * Completes the snapshot load, creates deferred indexes and updates statistics of bulk loaded tables. Called when
+   * the snapshot isn't running, does nothing when there is nothing left to complete.
+   */
+  public void complete() {
+    if (!restorePending && loadedTables.isEmpty()) {
+      return;
+    }
+    synchronized (bulkLoaded) {
+      jdbi.useHandle(handle -> {
+        if (deferredIndexes != null) {
+          int restored = deferredIndexes.restore(handle);
+          LOGGER.info("Created {} deferred indexes", restored);
+        }
+        if (analyze) {
+          for (RelationalTable table : loadedTables) {
+            final String statement = analyzeStatement(table);
+            if (statement != null) {
+              LOGGER.info("Updating statistics of table {}", table.tableId());
+              handle.execute(statement);
+            }
+          }
+        }
+      });
+      restorePending = false;
+      loadedTables.clear();
+      bulkLoaded.clear();
+    }
+  }
+
+  String analyzeStatement(RelationalTable table) {
+    final String q = identifierQuoteCharacter;
+    final String tableName = String.format("%s%s%s.%s%s%s", q, table.schemaName(), q, q, table.tableName, q);
+    switch (dialect) {
+      case POSTGRES:
+        return "ANALYZE " + tableName;
+      case MYSQL:
+        return "ANALYZE TABLE " + tableName;
+      case SQLSERVER:
+        return "UPDATE STATISTICS " + tableName;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Splits events to runs of consecutive snapshot and non snapshot events, keeping their order.
+   */
+  static List<List<JdbcChangeEvent>> runs(List<JdbcChangeEvent> events) {
+    List<List<JdbcChangeEvent>> runs = new ArrayList<>();
+    int start = 0;
+    for (int i = 1; i <= events.size(); i++) {
+      if (i == events.size() || isSnapshotRead(events.get(i)) != isSnapshotRead(events.get(start))) {
+        runs.add(events.subList(start, i));
+        start = i;
+      }
+    }
+    return runs;
+  }
+
+  static boolean isSnapshotRead(JdbcChangeEvent event) {
+    return SNAPSHOT_READ.equals(event.operation());
+  }
+
+}
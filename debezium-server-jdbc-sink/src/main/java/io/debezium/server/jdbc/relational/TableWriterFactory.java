@@ -1,26 +1,171 @@
 package io.debezium.server.jdbc.relational;
 
+import io.debezium.server.jdbc.SinkMetrics;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Dependent
 public class TableWriterFactory {
+  protected static final Logger LOGGER = LoggerFactory.getLogger(TableWriterFactory.class);
   @ConfigProperty(name = "debezium.sink.jdbc.upsert", defaultValue = "true")
   boolean upsert;
   @ConfigProperty(name = "debezium.sink.jdbc.upsert-keep-deletes", defaultValue = "true")
   boolean upsertKeepDeletes;
+  @ConfigProperty(name = "debezium.sink.jdbc.upsert-mode", defaultValue = "delete-insert")
+  String upsertMode;
 
   @ConfigProperty(name = "debezium.sink.jdbc.identifier-quote-char", defaultValue = "")
   Optional<String> identifierQuoteCharacter;
+  @ConfigProperty(name = "debezium.sink.jdbc.bind-missing-columns-as-null", defaultValue = "false")
+  boolean bindMissingColumnsAsNull;
+
+  @ConfigProperty(name = "debezium.sink.jdbc.copy.enabled", defaultValue = "false")
+  boolean copyEnabled;
+  @ConfigProperty(name = "debezium.sink.jdbc.copy.format", defaultValue = "text")
+  String copyFormat;
+  @ConfigProperty(name = "debezium.sink.jdbc.copy.tables")
+  Optional<List<String>> copyTables;
+  @ConfigProperty(name = "debezium.sink.jdbc.load-data.enabled", defaultValue = "false")
+  boolean loadDataEnabled;
+  @ConfigProperty(name = "debezium.sink.jdbc.multi-row-insert.enabled", defaultValue = "false")
+  boolean multiRowInsertEnabled;
+  @ConfigProperty(name = "debezium.sink.jdbc.multi-row-insert.max-rows", defaultValue = "1000")
+  int multiRowInsertMaxRows;
+  @ConfigProperty(name = "debezium.sink.jdbc.upsert-partitions", defaultValue = "1")
+  int upsertPartitions;
+  @ConfigProperty(name = "debezium.sink.jdbc.upsert-partitions.tables")
+  Optional<List<String>> upsertPartitionedTables;
+  @ConfigProperty(name = "debezium.sink.jdbc.delete.max-keys", defaultValue = "1")
+  int deleteMaxKeys;
+  @ConfigProperty(name = "debezium.sink.jdbc.snapshot.fast-path", defaultValue = "false")
+  boolean snapshotFastPath;
+  @ConfigProperty(name = "debezium.sink.jdbc.snapshot.defer-indexes", defaultValue = "false")
+  boolean snapshotDeferIndexes;
+  @ConfigProperty(name = "debezium.sink.jdbc.snapshot.analyze", defaultValue = "true")
+  boolean snapshotAnalyze;
+  @ConfigProperty(name = "debezium.sink.jdbc.database.schema", defaultValue = "debezium")
+  String targetSchema;
+  @ConfigProperty(name = "debezium.sink.jdbc.chunk.size", defaultValue = "0")
+  int chunkSize;
+  @ConfigProperty(name = "debezium.sink.jdbc.chunk.adaptive", defaultValue = "false")
+  boolean chunkAdaptive;
+  @ConfigProperty(name = "debezium.sink.jdbc.chunk.min-size", defaultValue = "100")
+  int chunkMinSize;
+  @ConfigProperty(name = "debezium.sink.jdbc.chunk.max-size", defaultValue = "50000")
+  int chunkMaxSize;
+  @ConfigProperty(name = "debezium.sink.jdbc.chunk.target-latency-ms", defaultValue = "1000")
+  long chunkTargetLatencyMs;
+  @Inject
+  SinkMetrics metrics;
+
+  /**
+   * @param dialect dialect of the database, detected once by the caller
+   */
+  public BaseTableWriter get(final Jdbi jdbi, final JdbcDialect dialect) {
+    final String quote = identifierQuoteCharacter.orElse("");
+    final BaseTableWriter bulkWriter = configure(bulkWriter(jdbi, quote, dialect));
+    final AppendTableWriter appendTableWriter = configure(
+        new AppendTableWriter(jdbi, quote, bulkWriter, bulkTables(bulkWriter), chunking()));
 
-  public BaseTableWriter get(final Jdbi jdbi) {
     if (upsert) {
-      return new UpsertTableWriter(jdbi, identifierQuoteCharacter.orElse(""), upsertKeepDeletes);
+      return configure(new UpsertTableWriter(jdbi, quote, upsertKeepDeletes, dialect,
+          UpsertTableWriter.UpsertMode.fromConfig(upsertMode), appendTableWriter, upsertPartitions,
+          new HashSet<>(upsertPartitionedTables.orElse(List.of())), deleteMaxKeys));
     } else {
-      return new AppendTableWriter(jdbi, identifierQuoteCharacter.orElse(""));
+      return appendTableWriter;
+    }
+  }
+
+  /**
+   * Writer used while the source snapshot is running, null when snapshot fast path is disabled.
+   *
+   * @param writer regular writer returned by {@link #get(Jdbi, JdbcDialect)}
+   */
+  public SnapshotTableWriter getSnapshotWriter(final Jdbi jdbi, final JdbcDialect dialect,
+                                               final BaseTableWriter writer) {
+    if (!snapshotFastPath) {
+      return null;
+    }
+    final String quote = identifierQuoteCharacter.orElse("");
+    BaseTableWriter bulkWriter = bulkWriter(jdbi, quote, dialect);
+    // configured bulk writer is limited to its tables, other tables are appended with batch inserts
+    final Set<String> bulkTables = bulkTables(bulkWriter);
+    if (bulkWriter == null && dialect == JdbcDialect.POSTGRES) {
+      bulkWriter = new PostgresCopyTableWriter(jdbi, quote, PostgresCopyTableWriter.CopyFormat.TEXT);
+    } else if (bulkWriter == null && dialect.maxBindParameters() > 0) {
+      bulkWriter = new MultiRowInsertTableWriter(jdbi, quote, dialect.maxBindParameters(), multiRowInsertMaxRows);
+    }
+    DeferredIndexes deferredIndexes = null;
+    if (snapshotDeferIndexes) {
+      if (DeferredIndexes.isSupported(dialect)) {
+        deferredIndexes = new DeferredIndexes(targetSchema, quote, dialect);
+      } else {
+        LOGGER.warn("Deferring indexes is not supported for {} dialect, indexes are kept during snapshot.", dialect);
+      }
+    }
+    LOGGER.info("Using snapshot fast path with {}", bulkWriter == null ? "batch inserts" :
+        bulkWriter.getClass().getSimpleName());
+    return configure(new SnapshotTableWriter(jdbi, quote, writer,
+        configure(new AppendTableWriter(jdbi, quote, configure(bulkWriter), bulkTables, chunking())), dialect,
+        deferredIndexes, snapshotAnalyze));
+  }
+
+  /**
+   * Records metrics of the writer with the sink metrics and applies the binding options, writers created elsewhere
+   * don't record metrics and fail on missing columns.
+   */
+  <T extends BaseTableWriter> T configure(T writer) {
+    if (writer != null && metrics != null) {
+      writer.metrics = metrics;
+    }
+    if (writer != null) {
+      writer.nullMissingColumns = bindMissingColumnsAsNull;
+    }
+    return writer;
+  }
+
+  /**
+   * Tables appended with the bulk writer, empty applies it to all tables. Only COPY is limited to `copy.tables`.
+   */
+  Set<String> bulkTables(BaseTableWriter bulkWriter) {
+    return bulkWriter instanceof PostgresCopyTableWriter ? new HashSet<>(copyTables.orElse(List.of())) : Set.of();
+  }
+
+  BatchChunking chunking() {
+    return new BatchChunking(chunkSize, chunkAdaptive, chunkMinSize, chunkMaxSize, chunkTargetLatencyMs);
+  }
+
+  BaseTableWriter bulkWriter(final Jdbi jdbi, final String quote, final JdbcDialect dialect) {
+    if (copyEnabled) {
+      if (dialect == JdbcDialect.POSTGRES) {
+        return new PostgresCopyTableWriter(jdbi, quote,
+            PostgresCopyTableWriter.CopyFormat.valueOf(copyFormat.trim().toUpperCase(Locale.ROOT)));
+      }
+      LOGGER.warn("COPY is only supported for postgresql, {} dialect detected. Using batch inserts.", dialect);
+    }
+    if (loadDataEnabled) {
+      if (dialect == JdbcDialect.MYSQL) {
+        return new MysqlLoadDataTableWriter(jdbi, quote);
+      }
+      LOGGER.warn("LOAD DATA is only supported for mysql, {} dialect detected. Using batch inserts.", dialect);
+    }
+    if (multiRowInsertEnabled) {
+      if (dialect.maxBindParameters() > 0) {
+        return new MultiRowInsertTableWriter(jdbi, quote, dialect.maxBindParameters(), multiRowInsertMaxRows);
+      }
+      LOGGER.warn("Multi row insert is not supported for {} dialect. Using batch inserts.", dialect);
     }
+    return null;
   }
 }
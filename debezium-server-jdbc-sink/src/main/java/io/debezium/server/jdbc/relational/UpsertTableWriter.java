@@ -8,96 +8,479 @@
 
 package io.debezium.server.jdbc.relational;
 
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.BatchStageEvent;
 import io.debezium.server.jdbc.JdbcChangeEvent;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableMap;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.statement.PreparedBatch;
 
 public class UpsertTableWriter extends BaseTableWriter {
   static final ImmutableMap<String, Integer> cdcOperations = ImmutableMap.of("c", 1, "r", 2, "u", 3, "d", 4);
   private final AppendTableWriter appendTableWriter;
-  final String sourceTsMsColumn = "__source_ts_ms";
-  final String opColumn = "__op";
   final boolean upsertKeepDeletes;
+  final JdbcDialect dialect;
+  final UpsertMode upsertMode;
+  final int partitions;
+  final Set<String> partitionedTables;
+  final int deleteMaxKeys;
+  private final ExecutorService partitionPool;
 
   public UpsertTableWriter(Jdbi jdbi, String identifierQuoteCharacter, boolean upsertKeepDeletes) {
-    super(jdbi, identifierQuoteCharacter);
+    this(jdbi, identifierQuoteCharacter, upsertKeepDeletes, JdbcDialect.GENERIC, UpsertMode.DELETE_INSERT);
+  }
+
+  public UpsertTableWriter(Jdbi jdbi, String identifierQuoteCharacter, boolean upsertKeepDeletes, JdbcDialect dialect,
+                           UpsertMode upsertMode) {
+    this(jdbi, identifierQuoteCharacter, upsertKeepDeletes, dialect, upsertMode,
+        new AppendTableWriter(jdbi, identifierQuoteCharacter));
+  }
+
+  public UpsertTableWriter(Jdbi jdbi, String identifierQuoteCharacter, boolean upsertKeepDeletes, JdbcDialect dialect,
+                           UpsertMode upsertMode, AppendTableWriter appendTableWriter) {
+    this(jdbi, identifierQuoteCharacter, upsertKeepDeletes, dialect, upsertMode, appendTableWriter, 1, Set.of(), 1);
+  }
+
+  /**
+   * @param partitions        number of key hash partitions applied concurrently, 1 disables partitioning
+   * @param partitionedTables tables applied with key hash partitions, empty to partition all tables having PK
+   * @param deleteMaxKeys     maximum number of keys deleted with single statement, 1 deletes key by key
+   */
+  public UpsertTableWriter(Jdbi jdbi, String identifierQuoteCharacter, boolean upsertKeepDeletes, JdbcDialect dialect,
+                           UpsertMode upsertMode, AppendTableWriter appendTableWriter, int partitions,
+                           Set<String> partitionedTables, int deleteMaxKeys) {
+    super(jdbi, identifierQuoteCharacter, appendTableWriter.chunking);
     this.upsertKeepDeletes = upsertKeepDeletes;
-    appendTableWriter = new AppendTableWriter(jdbi, identifierQuoteCharacter);
+    this.dialect = dialect;
+    if (upsertMode == UpsertMode.NATIVE && !dialect.supportsUpsert()) {
+      LOGGER.warn("Native upsert is not supported for {} dialect, using delete+insert", dialect);
+      upsertMode = UpsertMode.DELETE_INSERT;
+    }
+    if (upsertMode == UpsertMode.STAGING && !dialect.supportsStaging()) {
+      LOGGER.warn("Staging table upsert is not supported for {} dialect, using delete+insert", dialect);
+      upsertMode = UpsertMode.DELETE_INSERT;
+    }
+    this.upsertMode = upsertMode;
+    this.appendTableWriter = appendTableWriter;
+    if (partitions > 1 && upsertMode != UpsertMode.NATIVE) {
+      // delete+insert and staging merge take range locks on mysql, open partition transactions waiting on each other
+      // aren't detected as deadlock by the database
+      LOGGER.warn("Upsert partitions are only supported with native upsert mode, {} mode is used, partitions are " +
+                  "disabled", upsertMode);
+      partitions = 1;
+    }
+    this.partitions = partitions;
+    this.partitionedTables = partitionedTables;
+    this.deleteMaxKeys = deleteMaxKeys;
+    if (partitions > 1) {
+      final AtomicInteger threadCount = new AtomicInteger();
+      this.partitionPool = Executors.newFixedThreadPool(partitions, r -> {
+        Thread t = new Thread(r, "jdbc-upsert-partition-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    } else {
+      this.partitionPool = null;
+    }
   }
 
   @Override
   public void addToTable(final RelationalTable table, final List<JdbcChangeEvent> events) {
     if (table.hasPK()) {
-      this.deleteInsert(table, deduplicateBatch(events));
+      final List<JdbcChangeEvent> deduplicated = deduplicateBatch(table, events);
+      if (isPartitioned(table, deduplicated.size())) {
+        this.applyPartitioned(table, deduplicated);
+      } else {
+        this.applyInTransaction(table, deduplicated);
+      }
     } else {
       // log message
       appendTableWriter.addToTable(table, events);
     }
   }
 
+  /**
+   * Writes the events using given handle within the transaction of the caller, tables are not partitioned.
+   */
+  @Override
+  public void addToTable(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    if (table.hasPK()) {
+      this.apply(handle, table, deduplicateBatch(table, events));
+    } else {
+      appendTableWriter.addToTable(handle, table, events);
+    }
+  }
+
   public void deleteInsert(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    jdbi.useHandle(handle -> inTransaction(handle, table, events.size(), () -> deleteInsert(handle, table, events)));
+  }
 
-    int inserts = jdbi.withHandle(handle -> {
-      handle.begin(); // USE SINGLE TRANSACTION
-      PreparedBatch delete = handle.prepareBatch(table.preparedDeleteStatement(this.identifierQuoteCharacter));
-      PreparedBatch insert = handle.prepareBatch(table.preparedInsertStatement(this.identifierQuoteCharacter));
+  public void upsert(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    jdbi.useHandle(handle -> inTransaction(handle, table, events.size(), () -> upsert(handle, table, events)));
+  }
 
-      for (JdbcChangeEvent row : events) {
-        // if its deleted row and upsertKeepDeletes = true then add deleted record to target table
-        // else deleted records are deleted from target table
-        if (upsertKeepDeletes || !(row.operation().equals("d"))) {// anything which not an insert is upsert
-          insert.add(row.valueAsMap());
-        }
+  public void stagingMerge(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    jdbi.useHandle(handle -> inTransaction(handle, table, events.size(), () -> stagingMerge(handle, table, events)));
+  }
+
+  private void applyInTransaction(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    jdbi.useHandle(handle -> inTransaction(handle, table, events.size(), () -> apply(handle, table, events)));
+  }
+
+  /**
+   * Applies deduplicated events to the table with the configured upsert mode, transaction is managed by the caller.
+   */
+  void apply(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    switch (upsertMode) {
+      case NATIVE:
+        this.upsert(handle, table, events);
+        break;
+      case STAGING:
+        this.stagingMerge(handle, table, events);
+        break;
+      default:
+        this.deleteInsert(handle, table, events);
+    }
+  }
+
+  private void inTransaction(final Handle handle, final RelationalTable table, final int rows, final Runnable apply) {
+    handle.begin(); // USE SINGLE TRANSACTION
+    try {
+      final long start = System.nanoTime();
+      apply.run();
+      final long commitStart = System.nanoTime();
+      metrics.execute(table.tableId(), commitStart - start);
+      final BatchStageEvent commitEvent = BatchStageEvent.start("commit", table.tableId(), rows);
+      handle.commit();
+      commitEvent.commit();
+      metrics.commit(table.tableId(), System.nanoTime() - commitStart);
+    } catch (RuntimeException e) {
+      rollback(handle, table);
+      throw e;
+    }
+  }
+
+  private void rollback(final Handle handle, final RelationalTable table) {
+    handle.rollback();
+    if (upsertMode == UpsertMode.STAGING) {
+      // staging table could be outdated after a change of the table, next batch creates it again
+      try {
+        handle.execute(table.dropStagingTableStatement(this.identifierQuoteCharacter, dialect));
+      } catch (RuntimeException dropError) {
+        LOGGER.warn("Failed to drop staging table of {}", table.tableId(), dropError);
+      }
+    }
+  }
+
+  void deleteInsert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    List<JdbcChangeEvent> deleteRows = new ArrayList<>(events.size());
+    List<JdbcChangeEvent> insertRows = new ArrayList<>(events.size());
+
+    for (JdbcChangeEvent row : events) {
+      // if its deleted row and upsertKeepDeletes = true then add deleted record to target table
+      // else deleted records are deleted from target table
+      if (upsertKeepDeletes || !(row.operation().equals("d"))) {// anything which not an insert is upsert
+        insertRows.add(row);
+      }
+
+      if (!row.operation().equals("c")) { // anything which not an insert is upsert
+        deleteRows.add(row);
+      }
+    }
+
+    deleteKeys(handle, table, deleteRows);
+    // inserts through append writer, it uses bulk load when it's enabled
+    if (!insertRows.isEmpty()) {
+      appendTableWriter.insert(handle, table, insertRows);
+    }
+  }
+
+  /**
+   * Applies the batch using single statement upsert of the dialect. Deleted rows are removed with delete statement
+   * when deletes are not kept.
+   */
+  void upsert(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    List<JdbcChangeEvent> deleteRows = new ArrayList<>();
+    List<JdbcChangeEvent> upsertRows = new ArrayList<>(events.size());
+    RowBinder rowBinder = rowBinder(table);
+
+    for (JdbcChangeEvent row : events) {
+      if (upsertKeepDeletes || !(row.operation().equals("d"))) {
+        upsertRows.add(row);
+      } else {
+        deleteRows.add(row);
+      }
+    }
+
+    deleteKeys(handle, table, deleteRows);
+    final BatchStageEvent event = BatchStageEvent.start("upsert", table.tableId(), upsertRows.size());
+    executeChunked(handle, table.preparedUpsertStatement(this.identifierQuoteCharacter, dialect), upsertRows,
+        chunkSize(table, "upsert"), (b, e) -> rowBinder.add(b, e.valueParser()));
+    event.commit();
+  }
 
-        if (!row.operation().equals("c")) { // anything which not an insert is upsert
-          delete.add(row.keyAsMap());
+  /**
+   * Loads the batch to session local staging table and applies it to the table with set based delete and insert
+   * statements. Staging table is created by the first batch of the connection and reused by the following batches,
+   * it's cleared before every load since a caller managed transaction might write the table more than once.
+   */
+  void stagingMerge(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> events) {
+    handle.execute(table.createStagingTableStatement(this.identifierQuoteCharacter, dialect));
+    handle.execute(table.clearStagingTableStatement(this.identifierQuoteCharacter, dialect));
+    List<JdbcChangeEvent> deleteRows = new ArrayList<>();
+    List<JdbcChangeEvent> stageRows = new ArrayList<>(events.size());
+    RowBinder rowBinder = rowBinder(table);
+
+    for (JdbcChangeEvent row : events) {
+      if (upsertKeepDeletes || !"d".equals(row.operation())) {
+        stageRows.add(row);
+      } else {
+        deleteRows.add(row);
+      }
+    }
+
+    deleteKeys(handle, table, deleteRows);
+    if (!stageRows.isEmpty()) {
+      final BatchStageEvent event = BatchStageEvent.start("staging-merge", table.tableId(), stageRows.size());
+      executeChunked(handle, table.preparedStagingInsertStatement(this.identifierQuoteCharacter, dialect), stageRows,
+          chunkSize(table, "stage"), (b, e) -> rowBinder.add(b, e.valueParser()));
+      for (String sql : table.stagingMergeStatements(this.identifierQuoteCharacter, dialect)) {
+        handle.execute(sql);
+      }
+      event.commit();
+    }
+  }
+
+  /**
+   * Deletes rows of the keys. With set based delete many keys are deleted per statement, single column keys are bound
+   * as one array parameter on postgresql. Statements are limited by bind parameter limit of the database.
+   */
+  int deleteKeys(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> rows) {
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    final BatchStageEvent event = BatchStageEvent.start("delete", table.tableId(), rows.size());
+    final int deleted = executeDelete(handle, table, rows);
+    event.commit();
+    return deleted;
+  }
+
+  private int executeDelete(final Handle handle, final RelationalTable table, final List<JdbcChangeEvent> rows) {
+    final RowBinder keyBinder = table.keyBinder();
+    if (deleteMaxKeys <= 1 || rows.size() < 2 || !table.supportsSetDelete(dialect)) {
+      return executeChunked(handle, table.preparedDeleteStatement(this.identifierQuoteCharacter), rows,
+          chunkSize(table, "delete"), (b, e) -> keyBinder.add(b, e.keyParser()));
+    }
+
+    final String arrayType = dialect == JdbcDialect.POSTGRES ? table.postgresArrayType() : null;
+    if (arrayType != null) {
+      final String sql = table.preparedArrayDeleteStatement(this.identifierQuoteCharacter);
+      int deleted = 0;
+      for (int position = 0; position < rows.size(); position += deleteMaxKeys) {
+        final List<JdbcChangeEvent> chunk = rows.subList(position, Math.min(rows.size(), position + deleteMaxKeys));
+        final Object[] keys = new Object[chunk.size()];
+        for (int i = 0; i < keys.length; i++) {
+          keys[i] = RelationalTable.postgresArrayElement(arrayType, keyBinder.values(chunk.get(i).keyParser())[0]);
+        }
+        try {
+          deleted += handle.createUpdate(sql)
+              .bind(0, handle.getConnection().createArrayOf(arrayType, keys))
+              .execute();
+        } catch (SQLException e) {
+          throw new DebeziumException("Failed to create key array of table " + table.tableId(), e);
         }
       }
+      return deleted;
+    }
 
-      int[] deleted = delete.execute();
-      int[] inserted = insert.execute();
-      handle.commit();
-      return Arrays.stream(deleted).sum() + Arrays.stream(inserted).sum();
-    });
+    final int columns = keyBinder.columns().length;
+    final int keysPerStatement = Math.max(1, Math.min(deleteMaxKeys, dialect.maxBindParameters() / columns));
+    return executeMultiRow(handle, rows, keysPerStatement,
+        keys -> table.preparedSetDeleteStatement(this.identifierQuoteCharacter, dialect, keys),
+        (statement, keys) -> {
+          for (int i = 0; i < keys.size(); i++) {
+            keyBinder.bind(statement, i * columns, keys.get(i).keyParser());
+          }
+        });
+  }
+
+  @Override
+  public void close() {
+    if (partitionPool != null) {
+      partitionPool.shutdown();
+    }
+  }
+
+  /**
+   * @return number of partitions applied concurrently, 1 when partitioning is disabled
+   */
+  public int partitions() {
+    return partitions;
   }
 
-  private List<JdbcChangeEvent> deduplicateBatch(List<JdbcChangeEvent> events) {
+  boolean isPartitioned(final RelationalTable table, int rows) {
+    return partitionPool != null && rows >= partitions
+           && (partitionedTables.isEmpty() || partitionedTables.contains(table.tableName));
+  }
 
-    ConcurrentHashMap<JsonNode, JdbcChangeEvent> deduplicatedEvents = new ConcurrentHashMap<>();
-    events.forEach(e ->
-        // deduplicate using key(PK)
-        deduplicatedEvents.merge(e.key(), e, (oldValue, newValue) -> {
-          if (this.compareByTsThenOp(oldValue.value(), newValue.value()) <= 0) {
-            return newValue;
+  /**
+   * Splits deduplicated events by key hash and applies the partitions concurrently, each on its own connection and
+   * transaction. Keys are unique after deduplication so partitions don't touch the same rows. Transactions are
+   * committed only after all partitions are applied successfully, otherwise all of them are rolled back. Commits of
+   * the partitions are not atomic, when a commit fails the partitions committed before it stay applied.
+   */
+  void applyPartitioned(final RelationalTable table, final List<JdbcChangeEvent> events) {
+    final List<List<JdbcChangeEvent>> parts = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      parts.add(new ArrayList<>(events.size() / partitions + 1));
+    }
+    for (JdbcChangeEvent e : events) {
+      parts.get(Math.floorMod(e.key().hashCode(), partitions)).add(e);
+    }
+
+    final List<Future<Handle>> applies = new ArrayList<>(partitions);
+    for (List<JdbcChangeEvent> part : parts) {
+      if (part.isEmpty()) {
+        continue;
+      }
+      applies.add(partitionPool.submit(() -> {
+        Handle handle = jdbi.open();
+        try {
+          handle.begin();
+          final long start = System.nanoTime();
+          apply(handle, table, part);
+          metrics.execute(table.tableId(), System.nanoTime() - start);
+          return handle;
+        } catch (RuntimeException e) {
+          rollback(handle, table);
+          handle.close();
+          throw e;
+        }
+      }));
+    }
+
+    // wait for all partitions before deciding, prepared handles are committed or rolled back together
+    final List<Handle> prepared = new ArrayList<>(partitions);
+    RuntimeException error = null;
+    boolean interrupted = false;
+    for (Future<Handle> apply : applies) {
+      while (true) {
+        try {
+          prepared.add(apply.get());
+          break;
+        } catch (InterruptedException e) {
+          // keep waiting, running partitions hold connections which must be released
+          interrupted = true;
+        } catch (ExecutionException e) {
+          RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+              new DebeziumException("Failed to apply partition of table " + table.tableId(), e.getCause());
+          if (error == null) {
+            error = cause;
           } else {
-            return oldValue;
+            error.addSuppressed(cause);
           }
-        })
-    );
-    return new ArrayList<>(deduplicatedEvents.values());
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      if (error == null) {
+        error = new DebeziumException("Interrupted while applying partitions of table " + table.tableId());
+      }
+    }
+
+    int committed = 0;
+    for (Handle handle : prepared) {
+      try {
+        if (error == null) {
+          final long start = System.nanoTime();
+          final BatchStageEvent commitEvent = BatchStageEvent.start("commit", table.tableId(), 0);
+          handle.commit();
+          commitEvent.commit();
+          metrics.commit(table.tableId(), System.nanoTime() - start);
+          committed++;
+        } else {
+          rollback(handle, table);
+        }
+      } catch (RuntimeException e) {
+        if (error == null) {
+          // partitions committed before the failure stay committed, batch is replayed since offsets are not marked
+          error = committed == 0 ? e :
+              new DebeziumException("Committing partitions of table " + table.tableId() + " failed after " +
+                                    committed + " of " + prepared.size() + " partitions were committed, the " +
+                                    "table is partially applied until the batch is replayed", e);
+        } else {
+          error.addSuppressed(e);
+        }
+      } finally {
+        handle.close();
+      }
+    }
+
+    if (error != null) {
+      throw error;
+    }
   }
 
-  private int compareByTsThenOp(JsonNode lhs, JsonNode rhs) {
+  private List<JdbcChangeEvent> deduplicateBatch(RelationalTable table, List<JdbcChangeEvent> events) {
+    // deduplicate using key(PK)
+    final long start = System.nanoTime();
+    final BatchStageEvent event = BatchStageEvent.start("dedup", table.tableId(), events.size());
+    final List<JdbcChangeEvent> deduplicated = EventDeduplicator.deduplicate(events);
+    event.commit();
+    metrics.dedup(table.tableId(), System.nanoTime() - start, events.size(), deduplicated.size());
+    return deduplicated;
+  }
+
+  /**
+   * Orders events of the same key by source timestamp then by operation, greater event is the latest one.
+   */
+  public static int compareByTsThenOp(JdbcChangeEvent lhs, JdbcChangeEvent rhs) {
 
-    int result = Long.compare(lhs.get(sourceTsMsColumn).asLong(0), rhs.get(sourceTsMsColumn).asLong(0));
+    int result = Long.compare(lhs.sourceTsMs(), rhs.sourceTsMs());
 
     if (result == 0) {
       // return (x < y) ? -1 : ((x == y) ? 0 : 1);
-      result = cdcOperations.getOrDefault(lhs.get(opColumn).asText("c"), -1)
+      result = cdcOperations.getOrDefault(lhs.operation(), -1)
           .compareTo(
-              cdcOperations.getOrDefault(rhs.get(opColumn).asText("c"), -1)
+              cdcOperations.getOrDefault(rhs.operation(), -1)
           );
     }
 
     return result;
   }
 
+  public enum UpsertMode {
+    /**
+     * single statement upsert of the database dialect, falls back to DELETE_INSERT when dialect doesn't support it
+     */
+    NATIVE,
+    /**
+     * batch delete of the keys followed by batch insert
+     */
+    DELETE_INSERT,
+    /**
+     * batch load to session local staging table followed by set based delete and insert, falls back to DELETE_INSERT
+     * when dialect doesn't support it
+     */
+    STAGING;
+
+    public static UpsertMode fromConfig(String mode) {
+      return UpsertMode.valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+  }
+
 }
@@ -0,0 +1,44 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BatchStageEventTest {
+
+  @Test
+  void recordsStages() throws Exception {
+    Path file = Files.createTempFile("batch-stage", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(BatchStageEvent.class).withoutThreshold();
+      recording.start();
+      BatchStageEvent.start("decode", null, 10).bytes(1024).commit();
+      BatchStageEvent.start("insert", "debezium.t1", 5).commit();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.delete(file);
+    Assertions.assertEquals(2, events.size());
+    Assertions.assertEquals("decode", events.get(0).getString("stage"));
+    Assertions.assertEquals(1024, events.get(0).getLong("bytes"));
+    Assertions.assertEquals("debezium.t1", events.get(1).getString("table"));
+    Assertions.assertEquals(5, events.get(1).getInt("rows"));
+  }
+
+}
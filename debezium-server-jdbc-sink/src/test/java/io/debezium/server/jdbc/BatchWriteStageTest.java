@@ -0,0 +1,109 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BatchWriteStageTest {
+
+  @Test
+  void writesInOrder() throws InterruptedException {
+    List<Integer> written = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(10);
+    try (BatchWriteStage stage = new BatchWriteStage(2)) {
+      for (int i = 0; i < 10; i++) {
+        final int batch = i;
+        stage.submit(() -> {
+          written.add(batch);
+          done.countDown();
+        });
+      }
+      Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+    Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), written);
+  }
+
+  @Test
+  void failureStopsStage() throws InterruptedException {
+    CountDownLatch failed = new CountDownLatch(1);
+    try (BatchWriteStage stage = new BatchWriteStage(2)) {
+      stage.submit(() -> {
+        failed.countDown();
+        throw new DebeziumException("write failed");
+      });
+      Assertions.assertTrue(failed.await(10, TimeUnit.SECONDS));
+      Assertions.assertThrows(DebeziumException.class, () -> {
+        for (int i = 0; i < 100; i++) {
+          stage.submit(() -> {
+          });
+          Thread.sleep(BatchWriteStage.POLL_INTERVAL_MS);
+        }
+      });
+    }
+  }
+
+  @Test
+  void failureListenerIsNotified() throws InterruptedException {
+    CountDownLatch notified = new CountDownLatch(1);
+    try (BatchWriteStage stage = new BatchWriteStage(2, 1000, e -> notified.countDown())) {
+      stage.submit(() -> {
+        throw new DebeziumException("write failed");
+      });
+      // notified without submitting another batch
+      Assertions.assertTrue(notified.await(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void closeDrainsQueue() throws InterruptedException {
+    List<Integer> written = new CopyOnWriteArrayList<>();
+    BatchWriteStage stage = new BatchWriteStage(3, 10000, e -> {
+    });
+    for (int i = 0; i < 3; i++) {
+      final int batch = i;
+      stage.submit(() -> {
+        Thread.sleep(50);
+        written.add(batch);
+      });
+    }
+    stage.close();
+    Assertions.assertEquals(List.of(0, 1, 2), written);
+    Assertions.assertThrows(DebeziumException.class, () -> stage.submit(() -> {
+    }));
+  }
+
+  @Test
+  void closeInterruptsAfterTimeout() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    BatchWriteStage stage = new BatchWriteStage(2, 100, e -> {
+    });
+    stage.submit(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(60000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+    });
+    Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+    stage.close();
+    Assertions.assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+}
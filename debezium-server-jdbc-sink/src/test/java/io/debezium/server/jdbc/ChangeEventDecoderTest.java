@@ -0,0 +1,117 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.server.jdbc.testresources.TestChangeEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ChangeEventDecoderTest {
+
+  final ChangeEventDecoder decoder = new ChangeEventDecoder(new SchemaRegistry(10));
+
+  @Test
+  void decode() {
+    JdbcChangeEvent e = decoder.decode(TestChangeEvent.of("inventory.customers", 1, "u", "user1", 2L));
+    Assertions.assertEquals("inventory.customers", e.destination());
+    Assertions.assertEquals(1, e.key().get("id").asInt());
+    Assertions.assertEquals("user1", e.value().get("first_name").asText());
+    Assertions.assertEquals("u", e.operation());
+    Assertions.assertEquals(2L, e.value().get("__source_ts_ms").asLong());
+    Assertions.assertTrue(e.schema().valueSchemaFields().containsKey("first_name"));
+    Assertions.assertTrue(e.schema().keySchemaFields().containsKey("id"));
+  }
+
+  @Test
+  void decodeSharesSchema() {
+    JdbcChangeEvent e1 = decoder.decode(TestChangeEvent.of("inventory.customers", 1, "c", "user1", 1L));
+    JdbcChangeEvent e2 = decoder.decode(TestChangeEvent.of("inventory.customers", 2, "u", "user2", 2L));
+    JdbcChangeEvent e3 = decoder.decode(TestChangeEvent.ofCompositeKey("inventory.customers", 2, "u", "user2", 2L));
+    Assertions.assertSame(e1.schema(), e2.schema());
+    Assertions.assertNotSame(e1.schema(), e3.schema());
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> e1.schema().valueSchemaFields().clear());
+  }
+
+  @Test
+  void decodeNoKey() {
+    JdbcChangeEvent e = decoder.decode(TestChangeEvent.ofNoKey("inventory.customers", 1, "c", "user1", 1L));
+    Assertions.assertNull(e.key());
+    Assertions.assertNull(e.schema().keySchema());
+    Assertions.assertEquals(1, e.value().get("id").asInt());
+  }
+
+  @Test
+  void decodeBytes() {
+    TestChangeEvent<Object, Object> event = TestChangeEvent.of("inventory.customers", 1, "c", "user1", 1L);
+    JdbcChangeEvent e = decoder.decode(new TestChangeEvent<>(
+        event.key().toString().getBytes(), event.value().toString().getBytes(), event.destination()));
+    Assertions.assertEquals(1, e.key().get("id").asInt());
+    Assertions.assertEquals("user1", e.value().get("first_name").asText());
+  }
+
+  @Test
+  void schemaIsParsedOnce() {
+    SchemaRegistry registry = new SchemaRegistry(10);
+    ChangeEventDecoder decoder = new ChangeEventDecoder(registry);
+    TestChangeEvent<Object, Object> event = TestChangeEvent.of("inventory.customers", 1, "c", "user1", 1L);
+    TestChangeEvent<Object, Object> bytes = new TestChangeEvent<>(
+        event.key().toString().getBytes(StandardCharsets.UTF_8),
+        event.value().toString().getBytes(StandardCharsets.UTF_8), event.destination());
+
+    JdbcChangeEvent e1 = decoder.decode(event);
+    JdbcChangeEvent b1 = decoder.decode(bytes);
+    Assertions.assertEquals(e1.schema(), b1.schema());
+    Assertions.assertEquals(2, registry.size());
+    Assertions.assertSame(e1.schema(), decoder.decode(TestChangeEvent.of("inventory.customers", 2, "u", "user2", 2L)).schema());
+    Assertions.assertSame(b1.schema(), decoder.decode(bytes).schema());
+    Assertions.assertEquals(2, registry.size());
+
+    Assertions.assertNotSame(e1.schema(),
+        decoder.decode(TestChangeEvent.ofCompositeKey("inventory.customers", 2, "u", "user2", 2L)).schema());
+    Assertions.assertEquals(3, registry.size());
+  }
+
+  @Test
+  void decodeWithoutEnvelope() {
+    JdbcChangeEvent e = decoder.decode(new TestChangeEvent<>(null, "{\"id\":1,\"first_name\":\"user1\"," +
+                                                                   "\"__op\":\"c\"}", "dest"));
+    Assertions.assertNull(e.schema().valueSchema());
+    Assertions.assertEquals("user1", e.value().get("first_name").asText());
+    Assertions.assertEquals("c", e.operation());
+  }
+
+  @Test
+  void rawSchemaLocation() throws IOException {
+    final String schemaJson = "{\"a\": [1, {\"b\": \"\u00e9\"}]}";
+    final String json = "{\"name\":\"\u00e9\u00e9\", \"schema\": " + schemaJson + " , \"payload\":{}}";
+    for (Object data : new Object[]{json, json.getBytes(StandardCharsets.UTF_8)}) {
+      try (JsonParser parser = decoder.createParser(data)) {
+        while (!"schema".equals(parser.getCurrentName()) || parser.currentToken() != JsonToken.START_OBJECT) {
+          parser.nextToken();
+        }
+        SchemaRegistry.RawSchema schema = SchemaRegistry.RawSchema.read(data, parser);
+        Assertions.assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+        Assertions.assertEquals(JdbcChangeConsumer.mapper.readTree(schemaJson), schema.parse());
+        final SchemaRegistry.RawSchema expected = data instanceof String ? SchemaRegistry.RawSchema.of(schemaJson) :
+            new SchemaRegistry.RawSchema(schemaJson.getBytes(StandardCharsets.UTF_8), 0,
+                schemaJson.getBytes(StandardCharsets.UTF_8).length);
+        Assertions.assertEquals(expected, schema);
+        Assertions.assertEquals(expected, schema.compact());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.server.jdbc.relational.BaseTableWriter;
+import io.debezium.server.jdbc.relational.RelationalTable;
+import io.debezium.server.jdbc.relational.RelationalTableCache;
+import io.debezium.server.jdbc.testresources.TestChangeEvent;
+import io.debezium.util.Clock;
+
+import java.sql.JDBCType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CoalescingBufferConsumerTest {
+
+  JdbcChangeConsumer consumer;
+  final List<Object> written = new ArrayList<>();
+  final List<Object> marked = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    consumer = new JdbcChangeConsumer();
+    consumer.targetSchema = "public";
+    consumer.tablePrefix = "";
+    consumer.destinationRegexp = Optional.empty();
+    consumer.destinationRegexpReplace = Optional.empty();
+    consumer.sinkMetrics = SinkMetrics.NOOP;
+    consumer.decoder = new ChangeEventDecoder(new SchemaRegistry(10));
+    consumer.tableCache = new RelationalTableCache(0, Clock.system());
+    consumer.tableCache.put(new RelationalTable("public", "tbl1", Map.of("id", JDBCType.BIGINT,
+        "first_name", JDBCType.VARCHAR), Map.of("id", 1)));
+    consumer.tableWriter = new BaseTableWriter(null, "\"") {
+      @Override
+      public void addToTable(RelationalTable table, List<JdbcChangeEvent> events) {
+        events.forEach(e -> written.add(e.valueAsMap().get("id")));
+      }
+    };
+    consumer.buffer = new CoalescingBuffer<>(100, Long.MAX_VALUE, Long.MAX_VALUE, Clock.system());
+  }
+
+  DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer() {
+    return new DebeziumEngine.RecordCommitter<>() {
+      @Override
+      public void markProcessed(ChangeEvent<Object, Object> record) {
+        marked.add(record);
+      }
+
+      @Override
+      public void markBatchFinished() {
+        marked.add("batch");
+      }
+
+      @Override
+      public void markProcessed(ChangeEvent<Object, Object> record, DebeziumEngine.Offsets sourceOffsets) {
+        marked.add(record);
+      }
+
+      @Override
+      public DebeziumEngine.Offsets buildOffsets() {
+        return null;
+      }
+    };
+  }
+
+  void buffer(List<ChangeEvent<Object, Object>> records) throws InterruptedException {
+    consumer.bufferBatch(records, committer(), consumer.decodeAndGroup(records));
+  }
+
+  @Test
+  void closeWritesBufferedEvents() throws InterruptedException {
+    final List<ChangeEvent<Object, Object>> records = List.of(TestChangeEvent.of("tbl1", 1, "c", "a", 1L),
+        TestChangeEvent.of("tbl1", 2, "c", "b", 2L));
+    this.buffer(records);
+    Assertions.assertTrue(written.isEmpty());
+    Assertions.assertTrue(marked.isEmpty());
+
+    consumer.close();
+    Assertions.assertEquals(List.of(1, 2), written);
+    Assertions.assertEquals(List.of(records.get(0), records.get(1), "batch"), marked);
+    Assertions.assertEquals(0, consumer.buffer.rows());
+  }
+
+  @Test
+  void timerFlushesAreMarkedWithNextBatch() throws InterruptedException {
+    final ChangeEvent<Object, Object> first = TestChangeEvent.of("tbl1", 1, "c", "a", 1L);
+    this.buffer(List.of(first));
+    // flush of the timer thread writes the table without marking offsets
+    synchronized (consumer.buffer) {
+      consumer.flushBuffer(consumer.buffer.ready(true));
+    }
+    Assertions.assertEquals(List.of(1), written);
+    Assertions.assertTrue(marked.isEmpty());
+
+    final ChangeEvent<Object, Object> second = TestChangeEvent.of("tbl1", 2, "c", "b", 2L);
+    this.buffer(List.of(second));
+    Assertions.assertEquals(List.of(first, "batch"), marked);
+  }
+
+  @Test
+  void writeFailureFailsNextBatch() throws InterruptedException {
+    this.buffer(List.of(TestChangeEvent.of("tbl1", 1, "c", "a", 1L)));
+    final RuntimeException failure = new DebeziumException("flush failed");
+    consumer.writeFailed(failure);
+    consumer.writeFailed(new DebeziumException("second failure"));
+
+    DebeziumException error = Assertions.assertThrows(DebeziumException.class,
+        () -> consumer.handleBatch(List.of(TestChangeEvent.of("tbl1", 2, "c", "b", 2L)), committer()));
+    Assertions.assertSame(failure, error.getCause());
+    // buffered events are not written after a failure
+    consumer.close();
+    Assertions.assertTrue(written.isEmpty());
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CoalescingBufferTest {
+
+  final AtomicLong now = new AtomicLong();
+
+  static JdbcChangeEvent event(String destination, int id, String op, long ts) {
+    return new JdbcChangeEventBuilder().destination(destination).addKeyField("id", id).addField("__op", op)
+        .addField("__source_ts_ms", ts).build();
+  }
+
+  @Test
+  void deduplicatesAcrossBatches() {
+    CoalescingBuffer<String> buffer = new CoalescingBuffer<>(100, Long.MAX_VALUE, Long.MAX_VALUE, now::get);
+    buffer.add("b1", Map.of("upsert", List.of(event("upsert", 1, "c", 1)), "append", List.of(event("append", 1, "c", 1))),
+        Map.of(), "upsert"::equals);
+    buffer.add("b2", Map.of("upsert", List.of(event("upsert", 1, "d", 2)), "append", List.of(event("append", 1, "d", 2))),
+        Map.of(), "upsert"::equals);
+    Assertions.assertEquals(3, buffer.rows());
+
+    Map<String, List<JdbcChangeEvent>> events = buffer.take(buffer.ready(true));
+    Assertions.assertEquals(1, events.get("upsert").size());
+    Assertions.assertEquals("d", events.get("upsert").get(0).operation());
+    Assertions.assertEquals(2, events.get("append").size());
+    Assertions.assertEquals(List.of("b1", "b2"), buffer.flushed(events.keySet()));
+  }
+
+  @Test
+  void completesBatchesInOrder() {
+    CoalescingBuffer<String> buffer = new CoalescingBuffer<>(2, Long.MAX_VALUE, Long.MAX_VALUE, now::get);
+    buffer.add("b1", Map.of("t1", List.of(event("t1", 1, "c", 1)), "t2", List.of(event("t2", 1, "c", 1))),
+        Map.of(), d -> true);
+    buffer.add("b2", Map.of("t1", List.of(event("t1", 2, "c", 1))), Map.of(), d -> true);
+
+    Assertions.assertEquals(Set.of("t1"), buffer.ready(false));
+    buffer.take(Set.of("t1"));
+    // b1 waits for t2
+    Assertions.assertEquals(List.of(), buffer.flushed(Set.of("t1")));
+    Assertions.assertEquals(2, buffer.pendingBatches());
+    buffer.take(Set.of("t2"));
+    Assertions.assertEquals(List.of("b1", "b2"), buffer.flushed(Set.of("t2")));
+    Assertions.assertEquals(0, buffer.pendingBatches());
+  }
+
+  @Test
+  void flushTriggers() {
+    CoalescingBuffer<String> buffer = new CoalescingBuffer<>(100, 1000, 500, now::get);
+    buffer.add("b1", Map.of("t1", List.of(event("t1", 1, "c", 1))), Map.of("t1", 10L), d -> true);
+    buffer.add("b2", Map.of("t2", List.of(event("t2", 1, "c", 1))), Map.of("t2", 1000L), d -> true);
+    Assertions.assertEquals(Set.of("t2"), buffer.ready(false));
+    now.addAndGet(500);
+    Assertions.assertEquals(Set.of("t1", "t2"), buffer.ready(false));
+
+    Assertions.assertEquals(Set.of("t1"),
+        buffer.schemaChanged(Map.of("t1", List.of(new JdbcChangeEventBuilder().destination("t1").addKeyField("id", 1)
+            .addField("name", "x").build()))));
+  }
+
+}
@@ -0,0 +1,26 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class JdbcUtilTest {
+
+  @Test
+  void serializedSize() {
+    Assertions.assertEquals(0, JdbcUtil.serializedSize(null));
+    Assertions.assertEquals(3, JdbcUtil.serializedSize(new byte[3]));
+    final String value = "{\"name\":\"\u00e4\u20ac\ud83d\ude00\"}";
+    Assertions.assertEquals(value.getBytes(StandardCharsets.UTF_8).length, JdbcUtil.serializedSize(value));
+  }
+
+}
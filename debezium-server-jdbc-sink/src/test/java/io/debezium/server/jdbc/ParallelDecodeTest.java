@@ -0,0 +1,76 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.server.jdbc.testresources.TestChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelDecodeTest {
+
+  JdbcChangeConsumer consumer;
+
+  @BeforeEach
+  void setUp() {
+    consumer = new JdbcChangeConsumer();
+    consumer.decoder = new ChangeEventDecoder(new SchemaRegistry(10));
+    consumer.decodePool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    consumer.decodePool.shutdownNow();
+  }
+
+  static Map<String, List<Integer>> ids(Map<String, List<JdbcChangeEvent>> result) {
+    return result.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+        e -> e.getValue().stream().map(v -> v.key().get("id").asInt()).collect(Collectors.toList())));
+  }
+
+  @Test
+  void eventsKeepSourceOrderPerDestination() throws InterruptedException {
+    List<ChangeEvent<Object, Object>> records = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      records.add(TestChangeEvent.of("inventory.table" + (i % 3), i, "u", "user" + i, (long) i));
+    }
+
+    Map<String, List<Integer>> parallel = ids(consumer.decodeAndGroup(records));
+    consumer.decodePool.shutdown();
+    consumer.decodePool = null;
+    Map<String, List<Integer>> sequential = ids(consumer.decodeAndGroup(records));
+
+    Assertions.assertEquals(sequential, parallel);
+    for (List<Integer> tableIds : parallel.values()) {
+      Assertions.assertEquals(tableIds.stream().sorted().collect(Collectors.toList()), tableIds);
+    }
+  }
+
+  @Test
+  void decodeFailureIsThrown() {
+    List<ChangeEvent<Object, Object>> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      records.add(TestChangeEvent.of("inventory.customers", i, "u", "user" + i, (long) i));
+    }
+    records.add(new TestChangeEvent<>(null, "{not json", "inventory.customers"));
+    // failure of a worker thread is thrown as is, not wrapped in ExecutionException
+    Assertions.assertThrows(DebeziumException.class, () -> consumer.decodeAndGroup(records));
+  }
+
+}
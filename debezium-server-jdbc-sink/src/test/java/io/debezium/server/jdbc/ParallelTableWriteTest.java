@@ -0,0 +1,102 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.relational.BaseTableWriter;
+import io.debezium.server.jdbc.relational.RelationalTable;
+import io.debezium.server.jdbc.relational.RelationalTableCache;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.util.Clock;
+
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelTableWriteTest {
+
+  JdbcChangeConsumer consumer;
+  final Set<String> written = ConcurrentHashMap.newKeySet();
+  final AtomicInteger active = new AtomicInteger();
+  final AtomicInteger maxActive = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    consumer = new JdbcChangeConsumer();
+    consumer.writePool = Executors.newFixedThreadPool(3);
+    consumer.tableCache = new RelationalTableCache(0, Clock.system());
+  }
+
+  @AfterEach
+  void tearDown() {
+    consumer.writePool.shutdownNow();
+  }
+
+  static List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>> table(String name) {
+    RelationalTable table = new RelationalTable("public", name, Map.of("id", JDBCType.BIGINT), Map.of("id", 1));
+    return List.of(Map.entry(table, List.of(new JdbcChangeEventBuilder().addKeyField("id", 1).build())));
+  }
+
+  BaseTableWriter writer(Map<String, RuntimeException> failures) {
+    return new BaseTableWriter(null, "\"") {
+      @Override
+      public void addToTable(RelationalTable table, List<JdbcChangeEvent> events) {
+        final int concurrent = active.incrementAndGet();
+        maxActive.accumulateAndGet(concurrent, Math::max);
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          throw new DebeziumException(e);
+        } finally {
+          active.decrementAndGet();
+        }
+        if (failures.containsKey(table.tableName)) {
+          throw failures.get(table.tableName);
+        }
+        written.add(table.tableName);
+      }
+    };
+  }
+
+  @Test
+  void tablesAreWrittenConcurrently() throws InterruptedException {
+    consumer.writeTables(List.of(table("t1"), table("t2"), table("t3")), writer(Map.of()));
+    Assertions.assertEquals(Set.of("t1", "t2", "t3"), written);
+    Assertions.assertTrue(maxActive.get() > 1, "tables are written concurrently");
+  }
+
+  @Test
+  void failuresAreAggregated() {
+    List<List<Map.Entry<RelationalTable, List<JdbcChangeEvent>>>> tables = List.of(table("t1"), table("t2"),
+        table("t3"));
+    tables.forEach(t -> consumer.tableCache.put(t.get(0).getKey()));
+    RuntimeException columnMismatch = new DebeziumException(new SQLException("column \"x\" does not exist", "42703"));
+    RuntimeException failure = new DebeziumException("t3 failed");
+
+    RuntimeException error = Assertions.assertThrows(RuntimeException.class,
+        () -> consumer.writeTables(tables, writer(Map.of("t1", columnMismatch, "t3", failure))));
+    // first failed table is thrown, the others are suppressed, remaining tables are written
+    Assertions.assertSame(columnMismatch, error);
+    Assertions.assertEquals(List.of(failure), List.of(error.getSuppressed()));
+    Assertions.assertEquals(Set.of("t2"), written);
+    // stale metadata of the table failing with column mismatch is invalidated
+    Assertions.assertEquals(2, consumer.tableCache.size());
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.sql.SQLException;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SinkMetricsTest {
+
+  @Test
+  void recordsTableMetrics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SinkMetrics metrics = new SinkMetrics(registry);
+    metrics.rowsWritten("debezium.t1", 10);
+    metrics.rowsWritten("debezium.t1", 5);
+    metrics.rowsWritten("debezium.t2", 1);
+    metrics.dedup("debezium.t1", 1000, 10, 4);
+    metrics.dedup("debezium.t1", 1000, 0, 0);
+
+    Assertions.assertEquals(15,
+        registry.get("debezium.jdbc.rows.written").tag("table", "debezium.t1").counter().count());
+    Assertions.assertEquals(1,
+        registry.get("debezium.jdbc.rows.written").tag("table", "debezium.t2").counter().count());
+    Assertions.assertEquals(2,
+        registry.get("debezium.jdbc.dedup.time").tag("table", "debezium.t1").timer().count());
+    // empty batches don't change the ratio
+    Assertions.assertEquals(0.4,
+        registry.get("debezium.jdbc.dedup.ratio").tag("table", "debezium.t1").summary().mean(), 0.0001);
+  }
+
+  @Test
+  void metersAreRegisteredOnce() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SinkMetrics metrics = new SinkMetrics(registry);
+    final int registered = registry.getMeters().size();
+    metrics.batch(10);
+    metrics.decode(1);
+    metrics.batchWait(1);
+    Assertions.assertEquals(registered, registry.getMeters().size());
+
+    metrics.rowsWritten("debezium.t1", 1);
+    final int tableRegistered = registry.getMeters().size();
+    metrics.rowsWritten("debezium.t1", 1);
+    metrics.dedup("debezium.t1", 1000, 2, 1);
+    metrics.execute("debezium.t1", 1000);
+    metrics.commit("debezium.t1", 1000);
+    Assertions.assertEquals(tableRegistered, registry.getMeters().size());
+    Assertions.assertEquals(1, registry.get("debezium.jdbc.batch.size").summary().count());
+  }
+
+  @Test
+  void batchWait() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SinkMetrics metrics = new SinkMetrics(registry);
+    // gauges keep weak references
+    BasicDataSource dataSource = new BasicDataSource();
+    metrics.registerGauges(dataSource);
+    metrics.batchWait(1500);
+    Assertions.assertEquals(1500, registry.get("debezium.jdbc.batch.wait.last").gauge().value());
+    Assertions.assertEquals(0, registry.get("debezium.jdbc.pool.active").gauge().value());
+  }
+
+  @Test
+  void connectionAcquisition() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SinkMetrics metrics = new SinkMetrics(registry);
+    // no url configured, acquisition fails
+    BasicDataSource dataSource = new BasicDataSource();
+    metrics.registerGauges(dataSource);
+    Assertions.assertThrows(SQLException.class, () -> metrics.connectionFactory(dataSource).openConnection());
+    Assertions.assertEquals(0, registry.get("debezium.jdbc.pool.acquiring").gauge().value());
+    Assertions.assertEquals(1, registry.get("debezium.jdbc.pool.wait.time").timer().count());
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.server.jdbc.relational.BaseTableWriter;
+import io.debezium.server.jdbc.relational.JdbcDialect;
+import io.debezium.server.jdbc.relational.RelationalTable;
+import io.debezium.server.jdbc.relational.RelationalTableCache;
+import io.debezium.server.jdbc.relational.SnapshotTableWriter;
+import io.debezium.server.jdbc.testresources.TestChangeEvent;
+import io.debezium.util.Clock;
+
+import java.sql.JDBCType;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SnapshotCompletionTest {
+
+  JdbcChangeConsumer consumer;
+  final AtomicInteger completed = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    consumer = new JdbcChangeConsumer();
+    consumer.targetSchema = "public";
+    consumer.tablePrefix = "";
+    consumer.destinationRegexp = Optional.empty();
+    consumer.destinationRegexpReplace = Optional.empty();
+    consumer.sinkMetrics = SinkMetrics.NOOP;
+    consumer.decoder = new ChangeEventDecoder(new SchemaRegistry(10));
+    consumer.tableCache = new RelationalTableCache(0, Clock.system());
+    consumer.tableCache.put(new RelationalTable("public", "tbl1", Map.of("id", JDBCType.BIGINT,
+        "first_name", JDBCType.VARCHAR), Map.of("id", 1)));
+    BaseTableWriter writer = new BaseTableWriter(null, "\"") {
+      @Override
+      public void addToTable(RelationalTable table, List<JdbcChangeEvent> events) {
+      }
+    };
+    consumer.tableWriter = writer;
+    consumer.snapshotWriter = new SnapshotTableWriter(null, "\"", writer, writer, JdbcDialect.POSTGRES, null, false) {
+      @Override
+      public void complete() {
+        completed.incrementAndGet();
+      }
+    };
+  }
+
+  void write(boolean snapshot) throws InterruptedException {
+    consumer.writeEvents(Map.of("tbl1",
+        List.of(consumer.decoder.decode(TestChangeEvent.of("tbl1", 1, snapshot ? "r" : "u", "a", 1L)))), snapshot);
+  }
+
+  @Test
+  void completedOnceAfterSnapshot() throws InterruptedException {
+    // first streaming batch after start completes indexes left over by a previous run
+    write(false);
+    write(false);
+    Assertions.assertEquals(1, completed.get());
+
+    write(true);
+    write(true);
+    Assertions.assertEquals(1, completed.get());
+    write(false);
+    write(false);
+    Assertions.assertEquals(2, completed.get());
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.relational.RelationalTableCache;
+import io.debezium.server.jdbc.relational.RowBinder;
+import io.debezium.server.jdbc.testresources.TestChangeEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StreamingChangeEventDecoderTest {
+
+  final StreamingChangeEventDecoder decoder = new StreamingChangeEventDecoder(new SchemaRegistry(10));
+  final RowBinder binder = new RowBinder(List.of("id", "first_name", "__op", "__deleted"));
+
+  @Test
+  void decode() throws IOException {
+    JdbcChangeEvent e = decoder.decode(TestChangeEvent.of("inventory.customers", 1, "d", "user1", 2L));
+    Assertions.assertEquals("d", e.operation());
+    Assertions.assertEquals(2L, e.sourceTsMs());
+    Assertions.assertEquals(1, e.key().get("id").asInt());
+    Assertions.assertTrue(e.schema().valueSchemaFields().containsKey("first_name"));
+    Assertions.assertEquals("user1", e.value().get("first_name").asText());
+
+    Object[] row = binder.row(e.valueParser());
+    Assertions.assertArrayEquals(new Object[]{1, "user1", "d", true}, row);
+    // payload can be replayed
+    Assertions.assertArrayEquals(row, binder.row(e.valueParser()));
+  }
+
+  @Test
+  void decodeWithoutSchema() throws IOException {
+    JdbcChangeEvent e = decoder.decode(new TestChangeEvent<>(null,
+        "{\"id\":1,\"nested\":{\"a\":[1,2]},\"first_name\":\"user1\",\"__op\":\"c\",\"__source_ts_ms\":5}", "dest"));
+    Assertions.assertEquals("c", e.operation());
+    Assertions.assertEquals(5L, e.sourceTsMs());
+    Assertions.assertNull(e.key());
+
+    RowBinder nestedBinder = new RowBinder(List.of("nested", "id"));
+    Assertions.assertArrayEquals(new Object[]{"{\"a\":[1,2]}", 1}, nestedBinder.row(e.valueParser()));
+  }
+
+  @Test
+  void bindMatchesTreeDecoder() throws IOException {
+    TestChangeEvent<Object, Object> event = TestChangeEvent.of("inventory.customers", 3, "u", "user3", 7L);
+    JdbcChangeEvent streamed = decoder.decode(event);
+    JdbcChangeEvent tree = new ChangeEventDecoder(new SchemaRegistry(10)).decode(event);
+    Assertions.assertArrayEquals(binder.row(tree.valueParser()), binder.row(streamed.valueParser()));
+    Assertions.assertEquals(tree.operation(), streamed.operation());
+    Assertions.assertEquals(tree.sourceTsMs(), streamed.sourceTsMs());
+  }
+
+  @Test
+  void missingColumns() throws IOException {
+    JdbcChangeEvent e = decoder.decode(TestChangeEvent.of("inventory.customers", 1, "c", "user1", 2L));
+    final List<String> columns = List.of("id", "first_name", "missing_column");
+    DebeziumException error = Assertions.assertThrows(DebeziumException.class,
+        () -> new RowBinder(columns).row(e.valueParser()));
+    Assertions.assertTrue(error.getMessage().contains("[missing_column]"));
+    Assertions.assertArrayEquals(new Object[]{1, "user1", null}, new RowBinder(columns, true).row(e.valueParser()));
+  }
+
+  @Test
+  void fieldNamesMatchTreeDecoder() {
+    TestChangeEvent<Object, Object> event = TestChangeEvent.of("inventory.customers", 3, "u", "user3", 7L);
+    JdbcChangeEvent streamed = decoder.decode(event);
+    JdbcChangeEvent tree = new ChangeEventDecoder(new SchemaRegistry(10)).decode(event);
+    Assertions.assertEquals(List.of("id", "first_name", "__op", "__source_ts_ms", "__deleted"),
+        streamed.valueFieldNames());
+    Assertions.assertEquals(tree.valueFieldNames(), streamed.valueFieldNames());
+    Assertions.assertEquals(RelationalTableCache.eventStructure(tree, false),
+        RelationalTableCache.eventStructure(streamed, false));
+  }
+
+}
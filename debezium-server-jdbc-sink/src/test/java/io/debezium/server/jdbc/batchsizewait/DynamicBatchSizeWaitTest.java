@@ -0,0 +1,65 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.batchsizewait;
+
+import io.debezium.DebeziumException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DynamicBatchSizeWaitTest {
+
+  static DynamicBatchSizeWait batchSizeWait() {
+    DynamicBatchSizeWait wait = new DynamicBatchSizeWait();
+    wait.maxBatchSize = 1000;
+    wait.maxWaitMs = 10000;
+    wait.targetLatencyMs = 5000;
+    wait.increaseMs = 1000;
+    wait.decreaseFactor = 0.5;
+    return wait;
+  }
+
+  @Test
+  void increasesWhileBatchesAreSmall() {
+    DynamicBatchSizeWait wait = batchSizeWait();
+    for (int i = 1; i <= 3; i++) {
+      wait.lastWaitMs = wait.nextWaitMs(100, 100, -1, -1);
+      Assertions.assertEquals(i * 1000L, wait.lastWaitMs);
+    }
+    // full batches keep the wait
+    Assertions.assertEquals(3000, wait.nextWaitMs(1000, 100, -1, -1));
+    // estimated latency, wait plus processing time, is above the target
+    Assertions.assertEquals(1500, wait.nextWaitMs(100, 2500, -1, -1));
+  }
+
+  @Test
+  void decreasesOnLagAndFullQueue() {
+    DynamicBatchSizeWait wait = batchSizeWait();
+    wait.lastWaitMs = 4000;
+    Assertions.assertEquals(2000, wait.nextWaitMs(100, 100, 10, 6000));
+    Assertions.assertEquals(2000, wait.nextWaitMs(100, 100, 1000, 100));
+    // wait leaves room for processing within the target latency
+    Assertions.assertEquals(4000, wait.nextWaitMs(100, 1000, 10, 100));
+    Assertions.assertEquals(0, wait.nextWaitMs(100, 6000, 10, 100));
+  }
+
+  @Test
+  void invalidConfigIsRejected() {
+    DynamicBatchSizeWait wait = batchSizeWait();
+    wait.decreaseFactor = 1;
+    Assertions.assertThrows(DebeziumException.class, wait::initizalize);
+    wait = batchSizeWait();
+    wait.increaseMs = 0;
+    Assertions.assertThrows(DebeziumException.class, wait::initizalize);
+    wait = batchSizeWait();
+    wait.targetLatencyMs = -1;
+    Assertions.assertThrows(DebeziumException.class, wait::initizalize);
+  }
+
+}
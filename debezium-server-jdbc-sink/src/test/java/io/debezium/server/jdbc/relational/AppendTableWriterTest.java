@@ -0,0 +1,98 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.List;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AppendTableWriterTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> {
+      handle.execute("CREATE TABLE public.append_tx_a (id BIGINT, coll1 VARCHAR(100) NOT NULL)");
+      handle.execute("CREATE TABLE public.append_tx_b (id BIGINT, coll1 VARCHAR(100) NOT NULL)");
+    });
+  }
+
+  @BeforeEach
+  void truncate() {
+    jdbi.useHandle(handle -> handle.execute("TRUNCATE public.append_tx_a, public.append_tx_b"));
+  }
+
+  static JdbcChangeEvent event(int id, String coll1) {
+    JdbcChangeEventBuilder builder = new JdbcChangeEventBuilder().addField("id", id);
+    return (coll1 == null ? builder : builder.addField("coll1", coll1)).build();
+  }
+
+  static AppendTableWriter writer() {
+    // rows without coll1 reach the database and violate not null
+    AppendTableWriter writer = writer();
+    writer.nullMissingColumns = true;
+    return writer;
+  }
+
+  static int count(Handle handle, String table) {
+    return handle.createQuery("SELECT count(*) FROM public." + table).mapTo(Integer.class).one();
+  }
+
+  @Test
+  void tableIsWrittenAtomically() {
+    AppendTableWriter writer = writer();
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "append_tx_a", handle.getConnection());
+      writer.addToTable(table, List.of(event(1, "a"), event(2, "b")));
+      Assertions.assertEquals(2, count(handle, "append_tx_a"));
+
+      // last row violates not null, rows written before it are rolled back
+      Assertions.assertThrows(RuntimeException.class,
+          () -> writer.addToTable(table, List.of(event(3, "c"), event(4, "d"), event(5, null))));
+      Assertions.assertEquals(2, count(handle, "append_tx_a"));
+    }
+  }
+
+  @Test
+  void tablesAreWrittenInCallerTransaction() {
+    AppendTableWriter writer = writer();
+    try (Handle handle = jdbi.open()) {
+      RelationalTable tableA = new RelationalTable("public", "append_tx_a", handle.getConnection());
+      RelationalTable tableB = new RelationalTable("public", "append_tx_b", handle.getConnection());
+
+      // batch transaction scope, failure of the second table rolls back the first one
+      Assertions.assertThrows(RuntimeException.class, () -> jdbi.useTransaction(tx -> {
+        writer.addToTable(tx, tableA, List.of(event(1, "a")));
+        writer.addToTable(tx, tableB, List.of(event(2, null)));
+      }));
+      Assertions.assertEquals(0, count(handle, "append_tx_a"));
+      Assertions.assertEquals(0, count(handle, "append_tx_b"));
+
+      jdbi.useTransaction(tx -> {
+        writer.addToTable(tx, tableA, List.of(event(1, "a")));
+        writer.addToTable(tx, tableB, List.of(event(2, "b")));
+        // not visible to other connections before commit
+        Assertions.assertEquals(0, count(handle, "append_tx_a"));
+      });
+      Assertions.assertEquals(1, count(handle, "append_tx_a"));
+      Assertions.assertEquals(1, count(handle, "append_tx_b"));
+    }
+  }
+
+}
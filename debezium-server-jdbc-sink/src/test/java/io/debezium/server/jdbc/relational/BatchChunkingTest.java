@@ -0,0 +1,53 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BatchChunkingTest {
+
+  @Test
+  void fixedChunkSize() {
+    Assertions.assertEquals(Integer.MAX_VALUE, BatchChunking.DISABLED.newChunkSize().get());
+    BatchChunking.ChunkSize fixed = new BatchChunking(100, false, 10, 1000, 1000).newChunkSize();
+    fixed.record(100, 1);
+    Assertions.assertEquals(100, fixed.get());
+  }
+
+  @Test
+  void adaptiveChunkSize() {
+    BatchChunking.ChunkSize adaptive = new BatchChunking(100, true, 10, 1000, 1000).newChunkSize();
+    // 100 rows per ms, grows
+    adaptive.record(100, 1_000_000L);
+    Assertions.assertEquals(150, adaptive.get());
+    // partial chunk is ignored
+    adaptive.record(20, 1_000_000L);
+    Assertions.assertEquals(150, adaptive.get());
+    // slower than target latency, shrinks
+    adaptive.record(150, 2_000_000_000L);
+    Assertions.assertEquals(100, adaptive.get());
+    adaptive.record(100, 2_000_000_000L);
+    Assertions.assertEquals(66, adaptive.get());
+  }
+
+  @Test
+  void adaptiveChunkSizeIsBounded() {
+    BatchChunking.ChunkSize adaptive = new BatchChunking(100, true, 10, 200, 1000).newChunkSize();
+    for (int i = 0; i < 10; i++) {
+      adaptive.record(adaptive.get(), 1_000_000L);
+    }
+    Assertions.assertEquals(200, adaptive.get());
+    for (int i = 0; i < 20; i++) {
+      adaptive.record(adaptive.get(), 2_000_000_000L);
+    }
+    Assertions.assertEquals(10, adaptive.get());
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.List;
+import java.util.Set;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class DeferredIndexesTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    // own schema, registry of other tests isn't touched
+    jdbi.useHandle(handle -> {
+      handle.execute("CREATE SCHEMA deferred");
+      handle.execute("CREATE TABLE deferred.tbl (id BIGINT PRIMARY KEY, coll1 VARCHAR(100), coll2 INT, " +
+                     "CONSTRAINT tbl_coll2_key UNIQUE (coll2))");
+      handle.execute("CREATE INDEX tbl_coll1 ON deferred.tbl (coll1)");
+      handle.execute("CREATE UNIQUE INDEX tbl_coll1_lower ON deferred.tbl (lower(coll1))");
+    });
+  }
+
+  static List<String> indexes(Handle handle) {
+    return handle.createQuery("SELECT indexname FROM pg_indexes WHERE schemaname = 'deferred' AND tablename = 'tbl' " +
+                              "ORDER BY indexname").mapTo(String.class).list();
+  }
+
+  @Test
+  void dropAndRestore() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("deferred", "tbl", handle.getConnection());
+      DeferredIndexes deferredIndexes = new DeferredIndexes("deferred", "\"", JdbcDialect.POSTGRES);
+
+      // primary key and constraint indexes are kept
+      Assertions.assertEquals(Set.of("tbl_coll1", "tbl_coll1_lower"), deferredIndexes.drop(handle, table));
+      Assertions.assertEquals(List.of("tbl_coll2_key", "tbl_pkey"), indexes(handle));
+      Assertions.assertEquals(2, handle.createQuery("SELECT count(*) FROM deferred." + DeferredIndexes.REGISTRY_TABLE)
+          .mapTo(Integer.class).one());
+
+      // indexes are restored from the registry after a restart, existing ones are skipped
+      handle.execute("CREATE INDEX tbl_coll1 ON deferred.tbl (coll1)");
+      Assertions.assertEquals(2, new DeferredIndexes("deferred", "\"", JdbcDialect.POSTGRES).restore(handle));
+      Assertions.assertEquals(List.of("tbl_coll1", "tbl_coll1_lower", "tbl_coll2_key", "tbl_pkey"), indexes(handle));
+      Assertions.assertEquals(0, deferredIndexes.restore(handle));
+    }
+  }
+
+  @Test
+  void dropStatement() {
+    Assertions.assertEquals("DROP INDEX `idx` ON `db`.`tbl`",
+        new DeferredIndexes("db", "`", JdbcDialect.MYSQL).dropStatement("tbl", "idx"));
+    Assertions.assertEquals("DROP INDEX \"db\".\"idx\"",
+        new DeferredIndexes("db", "\"", JdbcDialect.POSTGRES).dropStatement("tbl", "idx"));
+  }
+
+}
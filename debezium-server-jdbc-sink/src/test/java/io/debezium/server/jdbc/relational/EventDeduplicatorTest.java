@@ -0,0 +1,71 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EventDeduplicatorTest {
+
+  static JdbcChangeEvent event(int id, String name, String op, long ts) {
+    return new JdbcChangeEventBuilder().addKeyField("id", id).addField("name", name).addField("__op", op)
+        .addField("__source_ts_ms", ts).build();
+  }
+
+  static JdbcChangeEvent compositeEvent(int id, String name, String op, long ts) {
+    return new JdbcChangeEventBuilder().addKeyField("id", id).addKeyField("name", name).addField("__op", op)
+        .addField("__source_ts_ms", ts).build();
+  }
+
+  static List<String> ops(List<JdbcChangeEvent> events) {
+    return events.stream().map(e -> e.key().get("id").asInt() + e.operation()).collect(Collectors.toList());
+  }
+
+  @Test
+  void longKeys() {
+    List<JdbcChangeEvent> events = List.of(
+        event(2, "a", "c", 1),
+        event(1, "a", "c", 1),
+        event(2, "a", "u", 3),
+        // older event is ignored
+        event(2, "a", "d", 2),
+        // same timestamp, later operation wins
+        event(1, "a", "d", 1),
+        event(3, "a", "r", 1));
+    Assertions.assertEquals(List.of("2u", "1d", "3r"), ops(EventDeduplicator.deduplicate(events)));
+  }
+
+  @Test
+  void packedKeys() {
+    List<JdbcChangeEvent> events = List.of(
+        compositeEvent(1, "a", "c", 1),
+        compositeEvent(1, "ab", "c", 1),
+        compositeEvent(1, "a", "u", 2),
+        compositeEvent(2, "a", "c", 1));
+    List<JdbcChangeEvent> deduplicated = EventDeduplicator.deduplicate(events);
+    Assertions.assertEquals(List.of("1u", "1c", "2c"), ops(deduplicated));
+    Assertions.assertEquals("ab", deduplicated.get(1).key().get("name").asText());
+  }
+
+  @Test
+  void longIntMap() {
+    EventDeduplicator.LongIntMap map = new EventDeduplicator.LongIntMap(3);
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertEquals(i, map.putIfAbsent(Long.MAX_VALUE - i * 1024L, i));
+    }
+    Assertions.assertEquals(1, map.putIfAbsent(Long.MAX_VALUE - 1024L, 5));
+  }
+
+}
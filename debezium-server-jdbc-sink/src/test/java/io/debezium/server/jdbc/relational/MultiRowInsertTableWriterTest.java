@@ -0,0 +1,55 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTableWriterTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> handle.execute(
+        "CREATE TABLE public.multi_row (id BIGINT, coll1 TEXT, coll2 NUMERIC, coll3 DATE, coll4 DECIMAL)"));
+  }
+
+  @Test
+  void multiRowInsert() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "multi_row", handle.getConnection());
+      String sql = table.preparedMultiRowInsertStatement("", 2);
+      Assertions.assertTrue(sql.endsWith("VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)"));
+      Assertions.assertSame(sql, table.preparedMultiRowInsertStatement("", 2));
+
+      MultiRowInsertTableWriter writer = new MultiRowInsertTableWriter(jdbi, "\"", 10, 1000);
+      writer.nullMissingColumns = true;
+      Assertions.assertEquals(2, writer.rowsPerStatement(5));
+      List<JdbcChangeEvent> events = new ArrayList<>();
+      for (int i = 0; i < 7; i++) {
+        events.add(new JdbcChangeEventBuilder().addField("id", 500).addField("coll1", "row" + i).build());
+      }
+      writer.addToTable(table, events);
+      Assertions.assertEquals(Integer.valueOf(7),
+          handle.createQuery("SELECT count(DISTINCT coll1) FROM multi_row WHERE id = 500").mapTo(Integer.class).one());
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.JDBCType;
+import java.sql.SQLWarning;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MysqlLoadDataTableWriterTest {
+
+  static final RelationalTable TABLE = new RelationalTable("test", "tbl", Map.of("id", JDBCType.BIGINT,
+      "name", JDBCType.VARCHAR), Map.of("id", 1));
+
+  @Test
+  void loadedRowsAreVerified() {
+    MysqlLoadDataTableWriter.verifyLoaded(TABLE, 2, 2, null);
+
+    // duplicate key skipped by LOAD DATA LOCAL
+    SQLWarning warning = new SQLWarning("Duplicate entry '1' for key 'tbl.PRIMARY'");
+    warning.setNextWarning(new SQLWarning("Data truncated for column 'name' at row 2"));
+    DebeziumException e = Assertions.assertThrows(DebeziumException.class,
+        () -> MysqlLoadDataTableWriter.verifyLoaded(TABLE, 2, 1, warning));
+    Assertions.assertTrue(e.getMessage().contains("reported 2 warnings"));
+    Assertions.assertTrue(e.getMessage().contains("Duplicate entry"));
+
+    e = Assertions.assertThrows(DebeziumException.class,
+        () -> MysqlLoadDataTableWriter.verifyLoaded(TABLE, 2, 1, null));
+    Assertions.assertEquals("Loaded 1 of 2 rows to table test.tbl", e.getMessage());
+  }
+
+  @Test
+  void rowStream() throws Exception {
+    RelationalTable table = new RelationalTable("test", "tbl", Map.of("id", JDBCType.BIGINT, "flag", JDBCType.BIT,
+        "name", JDBCType.VARCHAR), Map.of("id", 1));
+    String sql = new MysqlLoadDataTableWriter(null, "`").loadDataStatement(table);
+    Assertions.assertTrue(sql.startsWith("LOAD DATA LOCAL INFILE 'stream' INTO TABLE `test`.`tbl`"));
+    Assertions.assertTrue(sql.contains("`flag` = CAST(@v"));
+
+    List<JdbcChangeEvent> events = List.of(
+        new JdbcChangeEventBuilder().addField("id", 1).addField("flag", true).addField("name", "a\tb\\c").build(),
+        new JdbcChangeEventBuilder().addField("id", 2).addField("flag", false).build());
+    String[] columns = table.rowBinder().columns();
+    String expected = "";
+    for (int row = 0; row < 2; row++) {
+      String[] values = new String[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        switch (columns[i]) {
+          case "id":
+            values[i] = String.valueOf(row + 1);
+            break;
+          case "flag":
+            values[i] = row == 0 ? "1" : "0";
+            break;
+          default:
+            values[i] = row == 0 ? "a\\tb\\\\c" : "\\N";
+        }
+      }
+      expected += String.join("\t", values) + "\n";
+    }
+    try (InputStream in = new MysqlLoadDataTableWriter.RowInputStream(table.rowBinder(true), events)) {
+      Assertions.assertEquals(expected, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.List;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PostgresCopyTableWriterTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> handle.execute(
+        "CREATE TABLE public.copy_bits (id BIGINT, flag BOOLEAN, bits BIT(3), single_bit BIT(1), var_bits VARBIT(8))"));
+    jdbi.useHandle(handle -> handle.execute("CREATE TABLE public.copy_text (id BIGINT, coll1 TEXT, coll2 NUMERIC)"));
+  }
+
+  @Test
+  void allFormats() {
+    String value = "tab\tback\\slash\nnew line";
+    List<JdbcChangeEvent> events = List.of(
+        new JdbcChangeEventBuilder().addField("id", 300).addField("coll1", value).addField("coll2", 1).build(),
+        new JdbcChangeEventBuilder().addField("id", 301).addField("coll1", "x").build());
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "copy_text", handle.getConnection());
+      for (PostgresCopyTableWriter.CopyFormat format : PostgresCopyTableWriter.CopyFormat.values()) {
+        PostgresCopyTableWriter writer = new PostgresCopyTableWriter(jdbi, "\"", format);
+        writer.nullMissingColumns = true;
+        writer.addToTable(table, events);
+      }
+      final int formats = PostgresCopyTableWriter.CopyFormat.values().length;
+      Assertions.assertEquals(formats,
+          handle.createQuery("SELECT count(*) FROM public.copy_text WHERE id = 300 AND coll1 = :v AND coll2 = 1")
+              .bind("v", value).mapTo(Integer.class).one());
+      Assertions.assertEquals(formats,
+          handle.createQuery("SELECT count(*) FROM public.copy_text WHERE id = 301 AND coll2 IS NULL")
+              .mapTo(Integer.class).one());
+    }
+  }
+
+  @Test
+  void bitColumnsAreCopiedAsText() {
+    List<JdbcChangeEvent> events = List.of(
+        new JdbcChangeEventBuilder().addField("id", 1).addField("flag", true).addField("bits", "101")
+            .addField("single_bit", "1").addField("var_bits", "11").build(),
+        new JdbcChangeEventBuilder().addField("id", 2).addField("flag", false).addField("bits", "010")
+            .addField("single_bit", "0").addField("var_bits", "10010").build());
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "copy_bits", handle.getConnection());
+      Assertions.assertFalse(PostgresCopyTableWriter.supportsBinary(table));
+      new PostgresCopyTableWriter(jdbi, "\"", PostgresCopyTableWriter.CopyFormat.BINARY).addToTable(table, events);
+
+      Assertions.assertEquals(List.of("1 true 101 1 11", "2 false 010 0 10010"),
+          handle.createQuery("SELECT concat_ws(' ', id, flag::text, bits, single_bit, var_bits) FROM public.copy_bits " +
+                             "ORDER BY id")
+              .mapTo(String.class).list());
+    }
+  }
+
+}
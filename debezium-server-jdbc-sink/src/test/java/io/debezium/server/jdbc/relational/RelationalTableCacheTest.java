@@ -0,0 +1,94 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+import io.debezium.util.Clock;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class RelationalTableCacheTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> handle.execute("CREATE TABLE public.table_cache (id BIGINT PRIMARY KEY, coll1 TEXT)"));
+  }
+
+  @Test
+  void tableCache() {
+    JdbcChangeEvent.Schema schema = new JdbcChangeEventBuilder().addKeyField("id", 1).build().schema();
+    JdbcChangeEvent.Schema newSchema = new JdbcChangeEventBuilder().addKeyField("id", 1).addField("coll1", "x").build().schema();
+    RelationalTableCache cache = new RelationalTableCache(0, Clock.system());
+    AtomicInteger loads = new AtomicInteger();
+    try (Handle handle = jdbi.open()) {
+      Supplier<RelationalTable> loader = () -> {
+        loads.incrementAndGet();
+        return new RelationalTable("public", "table_cache", handle.getConnection());
+      };
+      RelationalTable t1 = cache.get("public", "table_cache", schema, loader);
+      RelationalTable t2 = cache.get("public", "table_cache", schema, loader);
+      Assertions.assertSame(t1, t2);
+      Assertions.assertEquals(1, loads.get());
+      // event schema changed
+      cache.get("public", "table_cache", newSchema, loader);
+      Assertions.assertEquals(2, loads.get());
+      cache.invalidate(t1);
+      cache.get("public", "table_cache", newSchema, loader);
+      Assertions.assertEquals(3, loads.get());
+      Assertions.assertEquals(1, cache.hits());
+      Assertions.assertEquals(3, cache.misses());
+    }
+  }
+
+  @Test
+  void eventStructure() {
+    RelationalTableCache cache = new RelationalTableCache(0, Clock.system());
+    AtomicInteger loads = new AtomicInteger();
+    try (Handle handle = jdbi.open()) {
+      Supplier<RelationalTable> loader = () -> {
+        loads.incrementAndGet();
+        return new RelationalTable("public", "table_cache", handle.getConnection());
+      };
+      // schemas disabled, field names of the events identify their structure
+      JdbcChangeEvent event = new JdbcChangeEventBuilder().addKeyField("id", 1).addField("coll1", "x").build();
+      Object structure = RelationalTableCache.eventStructure(event, false);
+      Assertions.assertEquals(structure, RelationalTableCache.eventStructure(
+          new JdbcChangeEventBuilder().addKeyField("id", 2).addField("coll1", "y").build(), false));
+      Assertions.assertSame(event.schema(), RelationalTableCache.eventStructure(event, true));
+      cache.get("public", "table_cache", structure, loader);
+      cache.get("public", "table_cache", structure, loader);
+      Assertions.assertEquals(1, loads.get());
+      // column added to the source table
+      cache.get("public", "table_cache", RelationalTableCache.eventStructure(
+          new JdbcChangeEventBuilder().addKeyField("id", 1).addField("coll1", "x").addField("coll2", 1).build(), false),
+          loader);
+      Assertions.assertEquals(2, loads.get());
+    }
+  }
+
+  @Test
+  void columnMismatch() {
+    Assertions.assertTrue(RelationalTableCache.isColumnMismatch(
+        new RuntimeException(new SQLException("column \"x\" does not exist", "42703"))));
+    Assertions.assertFalse(RelationalTableCache.isColumnMismatch(new RuntimeException("failed")));
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class RelationalTableLoadAllTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> {
+      handle.execute("CREATE SCHEMA preload");
+      handle.execute("CREATE TABLE preload.load_with_pk (id BIGINT, coll1 TEXT, coll2 NUMERIC, PRIMARY KEY (id, coll1))");
+      handle.execute("CREATE TABLE preload.load_without_pk (id BIGINT, coll1 TEXT, coll3 DATE)");
+    });
+  }
+
+  @Test
+  void loadAll() {
+    try (Handle handle = jdbi.open()) {
+      Map<String, RelationalTable> tables = RelationalTable.loadAll("preload", handle.getConnection());
+      RelationalTable withPk = new RelationalTable("preload", "load_with_pk", handle.getConnection());
+      RelationalTable withoutPk = new RelationalTable("preload", "load_without_pk", handle.getConnection());
+      Assertions.assertEquals(Set.of("load_with_pk", "load_without_pk"), tables.keySet());
+      Assertions.assertEquals(withPk.columns, tables.get("load_with_pk").columns);
+      Assertions.assertEquals(withPk.primaryKeys, tables.get("load_with_pk").primaryKeys);
+      Assertions.assertEquals(withoutPk.columns, tables.get("load_without_pk").columns);
+      Assertions.assertFalse(tables.get("load_without_pk").hasPK());
+    }
+  }
+
+  @Test
+  void loadAllReadsOnlyTheSchema() {
+    try (Handle handle = jdbi.open()) {
+      // `_` of the schema name is a wildcard of the metadata pattern, matching the other schema too
+      handle.execute("CREATE SCHEMA preload_a");
+      handle.execute("CREATE SCHEMA preloadxa");
+      handle.execute("CREATE TABLE preload_a.tbl (id BIGINT PRIMARY KEY, coll1 TEXT)");
+      handle.execute("CREATE TABLE preloadxa.tbl (key_id BIGINT PRIMARY KEY, coll2 TEXT)");
+      handle.execute("CREATE TABLE preloadxa.other (id BIGINT)");
+
+      Map<String, RelationalTable> tables = RelationalTable.loadAll("preload_a", handle.getConnection());
+      Assertions.assertEquals(Set.of("tbl"), tables.keySet());
+      Assertions.assertEquals(Set.of("id", "coll1"), tables.get("tbl").columns.keySet());
+      Assertions.assertEquals(Set.of("id"), tables.get("tbl").primaryKeys.keySet());
+      Assertions.assertEquals(Set.of("id", "coll1"),
+          new RelationalTable("preload_a", "tbl", handle.getConnection()).columns.keySet());
+    }
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.testresources.TargetMysqlDB;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RelationalTableMysqlTest {
+
+  @Test
+  void loadAllReadsOnlyTheDatabase() throws SQLException {
+    TargetMysqlDB.container.start();
+    // mysql databases are catalogs, same named table in another database
+    try (Connection conn = DriverManager.getConnection(TargetMysqlDB.container.getJdbcUrl(), "root",
+        TargetMysqlDB.DB_PASSWORD); Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE DATABASE preload_other");
+      stmt.execute("CREATE TABLE " + TargetMysqlDB.DB_DATABASE + ".preload_tbl (id BIGINT PRIMARY KEY, coll1 TEXT)");
+      stmt.execute("CREATE TABLE preload_other.preload_tbl (key_id BIGINT PRIMARY KEY, coll2 TEXT)");
+
+      Map<String, RelationalTable> tables = RelationalTable.loadAll(TargetMysqlDB.DB_DATABASE, conn);
+      Assertions.assertEquals(Set.of("id", "coll1"), tables.get("preload_tbl").columns.keySet());
+      Assertions.assertEquals(Set.of("id"), tables.get("preload_tbl").primaryKeys.keySet());
+      Assertions.assertEquals(Set.of("id", "coll1"),
+          new RelationalTable(TargetMysqlDB.DB_DATABASE, "preload_tbl", conn).columns.keySet());
+    }
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SetDeleteTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> {
+      handle.execute("CREATE TABLE public.array_delete (id BIGINT PRIMARY KEY, coll1 VARCHAR(100))");
+      handle.execute("CREATE TABLE public.set_delete (id BIGINT, coll1 TEXT, coll2 NUMERIC, PRIMARY KEY (id, coll1))");
+    });
+  }
+
+  @Test
+  void setDelete() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "set_delete", handle.getConnection());
+      Assertions.assertTrue(table.preparedSetDeleteStatement("", JdbcDialect.POSTGRES, 2)
+          .endsWith("IN ((?, ?), (?, ?))"));
+      Assertions.assertTrue(table.preparedSetDeleteStatement("", JdbcDialect.SQLSERVER, 2)
+          .contains("INNER JOIN (VALUES (?, ?), (?, ?))"));
+      Assertions.assertFalse(table.supportsSetDelete(JdbcDialect.GENERIC));
+      Assertions.assertNull(table.postgresArrayType());
+
+      UpsertTableWriter writer = new UpsertTableWriter(jdbi, "\"", false, JdbcDialect.POSTGRES,
+          UpsertTableWriter.UpsertMode.NATIVE, new AppendTableWriter(jdbi, "\""), 1, Set.of(), 4);
+      writer.nullMissingColumns = true;
+      List<JdbcChangeEvent> inserts = new ArrayList<>();
+      List<JdbcChangeEvent> deletes = new ArrayList<>();
+      for (int i = 0; i < 11; i++) {
+        inserts.add(new JdbcChangeEventBuilder().addKeyField("id", 700 + i).addKeyField("coll1", "set-delete")
+            .addField("__op", "c").build());
+        deletes.add(new JdbcChangeEventBuilder().addKeyField("id", 700 + i).addKeyField("coll1", "set-delete")
+            .addField("__op", "d").build());
+      }
+      writer.addToTable(table, inserts);
+      writer.addToTable(table, deletes.subList(0, 10));
+      Assertions.assertEquals(1,
+          handle.createQuery("SELECT count(*) FROM public.set_delete WHERE coll1 = 'set-delete'").mapTo(Integer.class).one());
+    }
+  }
+
+  @Test
+  void arrayDeleteRequiresSingleColumnKey() {
+    RelationalTable noKey = new RelationalTable("public", "no_key", Map.of("id", JDBCType.BIGINT), Map.of());
+    RelationalTable compositeKey = new RelationalTable("public", "composite_key",
+        Map.of("id", JDBCType.BIGINT, "coll1", JDBCType.VARCHAR), Map.of("id", 1, "coll1", 2));
+    Assertions.assertThrows(DebeziumException.class, () -> noKey.preparedArrayDeleteStatement("\""));
+    Assertions.assertThrows(DebeziumException.class, () -> compositeKey.preparedArrayDeleteStatement("\""));
+    Assertions.assertNull(noKey.postgresArrayType());
+    Assertions.assertNull(compositeKey.postgresArrayType());
+
+    RelationalTable singleKey = new RelationalTable("public", "single_key", Map.of("id", JDBCType.INTEGER),
+        Map.of("id", 1));
+    Assertions.assertEquals("int4", singleKey.postgresArrayType());
+    Assertions.assertTrue(singleKey.preparedArrayDeleteStatement("\"").endsWith("\"id\" = ANY(?)"));
+  }
+
+  @Test
+  void arrayElementsFollowColumnType() {
+    Assertions.assertEquals(1L, RelationalTable.postgresArrayElement("int8", 1.0d));
+    Assertions.assertEquals(2L, RelationalTable.postgresArrayElement("int4", "2"));
+    Assertions.assertEquals(new BigDecimal("1.50"), RelationalTable.postgresArrayElement("numeric", "1.50"));
+    Assertions.assertEquals("10", RelationalTable.postgresArrayElement("text", 10));
+    Assertions.assertNull(RelationalTable.postgresArrayElement("text", null));
+  }
+
+  @Test
+  void arrayDelete() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "array_delete", handle.getConnection());
+      Assertions.assertEquals("int8", table.postgresArrayType());
+
+      UpsertTableWriter writer = new UpsertTableWriter(jdbi, "\"", false, JdbcDialect.POSTGRES,
+          UpsertTableWriter.UpsertMode.NATIVE, new AppendTableWriter(jdbi, "\""), 1, Set.of(), 4);
+      List<JdbcChangeEvent> inserts = new ArrayList<>();
+      List<JdbcChangeEvent> deletes = new ArrayList<>();
+      for (int i = 0; i < 11; i++) {
+        inserts.add(new JdbcChangeEventBuilder().addKeyField("id", i).addField("coll1", "row" + i)
+            .addField("__op", "c").build());
+        deletes.add(new JdbcChangeEventBuilder().addKeyField("id", i).addField("coll1", "row" + i)
+            .addField("__op", "d").build());
+      }
+      writer.addToTable(table, inserts);
+      Assertions.assertEquals(10, writer.deleteKeys(handle, table, deletes.subList(0, 10)));
+      Assertions.assertEquals(1,
+          handle.createQuery("SELECT count(*) FROM public.array_delete").mapTo(Integer.class).one());
+    }
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SnapshotTableWriterTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> {
+      handle.execute("CREATE TABLE public.snapshot_empty (id BIGINT PRIMARY KEY, coll1 VARCHAR(100))");
+      handle.execute("CREATE TABLE public.snapshot_filled (id BIGINT PRIMARY KEY, coll1 VARCHAR(100))");
+      handle.execute("INSERT INTO public.snapshot_filled VALUES (1, 'existing')");
+    });
+  }
+
+  static JdbcChangeEvent event(int id, String op) {
+    return new JdbcChangeEventBuilder().addKeyField("id", id).addField("coll1", "row" + id).addField("__op", op).build();
+  }
+
+  static SnapshotTableWriter writer() {
+    return new SnapshotTableWriter(jdbi, "\"", new UpsertTableWriter(jdbi, "\"", true), new AppendTableWriter(jdbi, "\""),
+        JdbcDialect.POSTGRES, null, false);
+  }
+
+  @Test
+  void emptyTablesAreBulkLoaded() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable empty = new RelationalTable("public", "snapshot_empty", handle.getConnection());
+      RelationalTable filled = new RelationalTable("public", "snapshot_filled", handle.getConnection());
+      SnapshotTableWriter writer = writer();
+      final List<JdbcChangeEvent> snapshot = List.of(event(1, "r"));
+
+      // batches without snapshot events don't decide the state of the table
+      Assertions.assertFalse(writer.isBulkLoaded(empty, List.of(event(1, "u"))));
+      Assertions.assertTrue(writer.isBulkLoaded(empty, snapshot));
+      Assertions.assertFalse(writer.isBulkLoaded(filled, snapshot));
+
+      // state is kept until the snapshot completes, rows loaded meanwhile don't change it
+      handle.execute("INSERT INTO public.snapshot_empty VALUES (100, 'loaded')");
+      Assertions.assertTrue(writer.isBulkLoaded(empty, snapshot));
+      writer.complete();
+      Assertions.assertFalse(writer.isBulkLoaded(empty, snapshot));
+    }
+  }
+
+  @Test
+  void indexesAreDroppedDuringSnapshot() {
+    try (Handle handle = jdbi.open()) {
+      handle.execute("CREATE TABLE public.snapshot_indexed (id BIGINT PRIMARY KEY, coll1 VARCHAR(100))");
+      handle.execute("CREATE INDEX snapshot_indexed_coll1 ON public.snapshot_indexed (coll1)");
+      RelationalTable table = new RelationalTable("public", "snapshot_indexed", handle.getConnection());
+      SnapshotTableWriter writer = new SnapshotTableWriter(jdbi, "\"",
+          new UpsertTableWriter(jdbi, "\"", true),
+          new AppendTableWriter(jdbi, "\"", new PostgresCopyTableWriter(jdbi, "\"", PostgresCopyTableWriter.CopyFormat.TEXT),
+              Set.of(), BatchChunking.DISABLED),
+          JdbcDialect.POSTGRES, new DeferredIndexes("public", "\"", JdbcDialect.POSTGRES), true);
+      final String indexCount = "SELECT count(*) FROM pg_indexes WHERE tablename = 'snapshot_indexed' AND " +
+                                "indexname = 'snapshot_indexed_coll1'";
+      final String registryCount = "SELECT count(*) FROM public." + DeferredIndexes.REGISTRY_TABLE;
+
+      List<JdbcChangeEvent> events = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        events.add(event(i, "r"));
+      }
+      events.add(new JdbcChangeEventBuilder().addKeyField("id", 0).addField("coll1", "updated").addField("__op", "u").build());
+      writer.addToTable(table, events);
+      Assertions.assertEquals(0, handle.createQuery(indexCount).mapTo(Integer.class).one());
+      Assertions.assertEquals(1, handle.createQuery(registryCount).mapTo(Integer.class).one());
+
+      writer.complete();
+      Assertions.assertEquals(1, handle.createQuery(indexCount).mapTo(Integer.class).one());
+      Assertions.assertEquals(0, handle.createQuery(registryCount).mapTo(Integer.class).one());
+      Assertions.assertEquals(9, handle.createQuery(
+          "SELECT count(*) FROM public.snapshot_indexed WHERE coll1 LIKE 'row%'").mapTo(Integer.class).one());
+
+      // table has rows, snapshot events are upserted
+      writer.addToTable(table, List.of(new JdbcChangeEventBuilder().addKeyField("id", 1).addField("coll1", "again")
+          .addField("__op", "r").build()));
+      Assertions.assertEquals(1, handle.createQuery(indexCount).mapTo(Integer.class).one());
+      Assertions.assertEquals("again", handle.createQuery(
+          "SELECT coll1 FROM public.snapshot_indexed WHERE id = 1").mapTo(String.class).one());
+    }
+  }
+
+  @Test
+  void runs() {
+    List<List<JdbcChangeEvent>> runs = SnapshotTableWriter.runs(List.of(event(1, "r"), event(2, "r"), event(1, "u"),
+        event(3, "r")));
+    Assertions.assertEquals(List.of(2, 1, 1), runs.stream().map(List::size).collect(Collectors.toList()));
+    Assertions.assertTrue(SnapshotTableWriter.runs(List.of()).isEmpty());
+  }
+
+  @Test
+  void copyTablesLimitBulkWriter() {
+    TableWriterFactory factory = new TableWriterFactory();
+    factory.copyTables = Optional.of(List.of("tbl1"));
+    Assertions.assertEquals(Set.of("tbl1"),
+        factory.bulkTables(new PostgresCopyTableWriter(jdbi, "\"", PostgresCopyTableWriter.CopyFormat.TEXT)));
+    Assertions.assertEquals(Set.of(), factory.bulkTables(new MultiRowInsertTableWriter(jdbi, "\"", 100, 10)));
+    Assertions.assertEquals(Set.of(), factory.bulkTables(null));
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.DelegatingStatement;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+  static BasicDataSource dataSource;
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    TargetPostgresqlDB.container.start();
+    dataSource = new BasicDataSource();
+    dataSource.setUrl(TargetPostgresqlDB.container.getJdbcUrl());
+    dataSource.setUsername(TargetPostgresqlDB.container.getUsername());
+    dataSource.setPassword(TargetPostgresqlDB.container.getPassword());
+    // single connection, configured like `debezium.sink.jdbc.statement-cache.enabled`
+    dataSource.setMaxTotal(1);
+    dataSource.setPoolPreparedStatements(true);
+    dataSource.setMaxOpenPreparedStatements(8);
+    jdbi = Jdbi.create(dataSource);
+    jdbi.useHandle(handle -> handle.execute(
+        "CREATE TABLE IF NOT EXISTS public.statement_cache (id BIGINT PRIMARY KEY, coll1 VARCHAR(100))"));
+  }
+
+  @AfterAll
+  static void afterAll() throws SQLException {
+    dataSource.close();
+  }
+
+  static Statement prepared(String sql) throws SQLException {
+    try (Handle handle = jdbi.open(); PreparedStatement stmt = handle.getConnection().prepareStatement(sql)) {
+      return ((DelegatingStatement) stmt).getInnermostDelegate();
+    }
+  }
+
+  @Test
+  void generatedSqlIsCachedWithTable() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = new RelationalTable("public", "statement_cache", handle.getConnection());
+      Assertions.assertSame(table.preparedInsertStatement("\""), table.preparedInsertStatement("\""));
+      Assertions.assertSame(table.preparedDeleteStatement("\""), table.preparedDeleteStatement("\""));
+      Assertions.assertSame(table.preparedUpsertStatement("\"", JdbcDialect.POSTGRES),
+          table.preparedUpsertStatement("\"", JdbcDialect.POSTGRES));
+      Assertions.assertSame(table.stagingMergeStatements("\"", JdbcDialect.MYSQL),
+          table.stagingMergeStatements("\"", JdbcDialect.MYSQL));
+      // statements are cached per quote character
+      Assertions.assertNotEquals(table.preparedInsertStatement("\""), table.preparedInsertStatement(""));
+      // reloaded table builds its statements again
+      RelationalTable reloaded = new RelationalTable("public", "statement_cache", handle.getConnection());
+      Assertions.assertNotSame(table.preparedInsertStatement("\""), reloaded.preparedInsertStatement("\""));
+      Assertions.assertEquals(table.preparedInsertStatement("\""), reloaded.preparedInsertStatement("\""));
+    }
+  }
+
+  @Test
+  void preparedStatementsArePooledWithConnection() throws SQLException {
+    final String sql;
+    try (Handle handle = jdbi.open()) {
+      sql = new RelationalTable("public", "statement_cache", handle.getConnection()).preparedInsertStatement("\"");
+    }
+    // statement closed by the writer stays open with the pooled connection and is reused by the next batch
+    Statement first = prepared(sql);
+    Assertions.assertSame(first, prepared(sql));
+    Assertions.assertNotSame(first, prepared("SELECT count(*) FROM public.statement_cache"));
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.server.jdbc.JdbcChangeEvent;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UpsertPartitionsTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> handle.execute("CREATE TABLE public.upsert_partitioned (id BIGINT PRIMARY KEY, " +
+                                            "coll1 VARCHAR(100))"));
+  }
+
+  @BeforeEach
+  void truncate() {
+    jdbi.useHandle(handle -> handle.execute("TRUNCATE public.upsert_partitioned"));
+  }
+
+  static UpsertTableWriter writer(UpsertTableWriter.UpsertMode mode, AtomicInteger applied) {
+    return new UpsertTableWriter(jdbi, "\"", true, JdbcDialect.POSTGRES, mode, new AppendTableWriter(jdbi, "\""), 4,
+        Set.of(), 1) {
+      @Override
+      void apply(Handle handle, RelationalTable table, List<JdbcChangeEvent> events) {
+        applied.incrementAndGet();
+        super.apply(handle, table, events);
+      }
+    };
+  }
+
+  static List<JdbcChangeEvent> events(int count) {
+    List<JdbcChangeEvent> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      events.add(new JdbcChangeEventBuilder().addKeyField("id", i).addField("coll1", "row" + i)
+          .addField("__op", "c").build());
+    }
+    return events;
+  }
+
+  static RelationalTable table(Handle handle) {
+    return new RelationalTable("public", "upsert_partitioned", handle.getConnection());
+  }
+
+  @Test
+  void partitionedUpsert() {
+    final AtomicInteger applied = new AtomicInteger();
+    UpsertTableWriter writer = writer(UpsertTableWriter.UpsertMode.NATIVE, applied);
+    try (Handle handle = jdbi.open()) {
+      RelationalTable table = table(handle);
+      Assertions.assertTrue(writer.isPartitioned(table, 4));
+      Assertions.assertFalse(writer.isPartitioned(table, 3));
+      writer.addToTable(table, events(50));
+      Assertions.assertEquals(50,
+          handle.createQuery("SELECT count(*) FROM public.upsert_partitioned").mapTo(Integer.class).one());
+    } finally {
+      writer.close();
+    }
+    // partitions are only used with native upsert
+    Assertions.assertEquals(1, writer(UpsertTableWriter.UpsertMode.DELETE_INSERT, applied).partitions());
+  }
+
+  @Test
+  void emptyPartitionsAreSkipped() {
+    final AtomicInteger applied = new AtomicInteger();
+    UpsertTableWriter writer = writer(UpsertTableWriter.UpsertMode.NATIVE, applied);
+    // keys of the first partition only, other partitions are empty
+    final List<JdbcChangeEvent> events = events(100).stream()
+        .filter(e -> Math.floorMod(e.key().hashCode(), 4) == 0).limit(4).collect(Collectors.toList());
+    Assertions.assertEquals(4, events.size());
+    try (Handle handle = jdbi.open()) {
+      writer.addToTable(table(handle), events);
+      Assertions.assertEquals(1, applied.get());
+      Assertions.assertEquals(4,
+          handle.createQuery("SELECT count(*) FROM public.upsert_partitioned").mapTo(Integer.class).one());
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  void closeStopsPartitionThreads() {
+    UpsertTableWriter writer = writer(UpsertTableWriter.UpsertMode.NATIVE, new AtomicInteger());
+    writer.close();
+    try (Handle handle = jdbi.open()) {
+      Assertions.assertThrows(RejectedExecutionException.class, () -> writer.addToTable(table(handle), events(8)));
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ *  * Copyright memiiso Authors.
+ *  *
+ *  * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ */
+
+package io.debezium.server.jdbc.relational;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.jdbc.testresources.JdbcChangeEventBuilder;
+import io.debezium.server.jdbc.testresources.TargetPostgresqlDB;
+
+import java.sql.JDBCType;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class UpsertTableWriterTest {
+  static Jdbi jdbi;
+
+  @BeforeAll
+  static void beforeAll() {
+    jdbi = TargetPostgresqlDB.jdbi();
+    jdbi.useHandle(handle -> {
+      handle.execute("CREATE TABLE public.upsert_with_pk (id BIGINT, coll1 TEXT, coll2 NUMERIC, " +
+                     "coll3 DOUBLE PRECISION, coll4 DECIMAL, PRIMARY KEY (id, coll1))");
+      handle.execute("CREATE TABLE public.upsert_without_pk (id BIGINT, coll1 TEXT)");
+    });
+  }
+
+  @Test
+  void preparedUpsertStatement() {
+    String postgres = "INSERT INTO public.upsert_with_pk \n" +
+                      "(coll3 , coll2 , coll1 , id , coll4 ) \n" +
+                      "VALUES (:coll3, :coll2, :coll1, :id, :coll4)\n" +
+                      "ON CONFLICT (coll1, id) \n" +
+                      "DO UPDATE SET coll3 = EXCLUDED.coll3, coll2 = EXCLUDED.coll2, coll4 = EXCLUDED.coll4";
+    String mysql = "INSERT INTO public.upsert_with_pk \n" +
+                   "(coll3 , coll2 , coll1 , id , coll4 ) \n" +
+                   "VALUES (:coll3, :coll2, :coll1, :id, :coll4)\n" +
+                   "ON DUPLICATE KEY UPDATE coll3 = VALUES(coll3), coll2 = VALUES(coll2), coll4 = VALUES(coll4)";
+    try (Handle handle = jdbi.open()) {
+      Assertions.assertEquals(JdbcDialect.POSTGRES, JdbcDialect.of(handle.getConnection()));
+      RelationalTable withoutPk = new RelationalTable("public", "upsert_without_pk", handle.getConnection());
+      RelationalTable withPk = new RelationalTable("public", "upsert_with_pk", handle.getConnection());
+      Assertions.assertEquals(postgres, withPk.preparedUpsertStatement("", JdbcDialect.POSTGRES));
+      Assertions.assertEquals(mysql, withPk.preparedUpsertStatement("", JdbcDialect.MYSQL));
+      Assertions.assertTrue(withPk.preparedUpsertStatement("", JdbcDialect.SQLSERVER).startsWith("MERGE INTO"));
+      Assertions.assertThrows(DebeziumException.class, () -> withPk.preparedUpsertStatement("", JdbcDialect.GENERIC));
+      Assertions.assertThrows(DebeziumException.class, () -> withoutPk.preparedUpsertStatement("", JdbcDialect.POSTGRES));
+
+      String sql = withPk.preparedUpsertStatement("\"", JdbcDialect.POSTGRES);
+      for (int i = 0; i < 2; i++) {
+        handle.createUpdate(sql)
+            .bind("id", 100)
+            .bind("coll1", "upsert")
+            .bind("coll2", i)
+            .bindNull("coll3", Types.FLOAT)
+            .bindNull("coll4", Types.DECIMAL)
+            .execute();
+      }
+      Assertions.assertEquals(1,
+          handle.createQuery("SELECT coll2 FROM public.upsert_with_pk WHERE id = 100").mapTo(Integer.class).one());
+    }
+  }
+
+  @Test
+  void stagingMerge() {
+    try (Handle handle = jdbi.open()) {
+      RelationalTable withPk = new RelationalTable("public", "upsert_with_pk", handle.getConnection());
+      Assertions.assertEquals("CREATE TEMP TABLE IF NOT EXISTS stg_upsert_with_pk (LIKE public.upsert_with_pk) " +
+                              "ON COMMIT DELETE ROWS", withPk.createStagingTableStatement("", JdbcDialect.POSTGRES));
+      Assertions.assertEquals(2, withPk.stagingMergeStatements("", JdbcDialect.POSTGRES).size());
+      Assertions.assertEquals(3, withPk.stagingMergeStatements("", JdbcDialect.MYSQL).size());
+      Assertions.assertThrows(DebeziumException.class, () -> withPk.createStagingTableStatement("", JdbcDialect.ORACLE));
+
+      UpsertTableWriter writer = new UpsertTableWriter(jdbi, "\"", false, JdbcDialect.POSTGRES,
+          UpsertTableWriter.UpsertMode.STAGING);
+      writer.nullMissingColumns = true;
+      for (int i = 0; i < 2; i++) {
+        writer.addToTable(withPk, List.of(
+            new JdbcChangeEventBuilder().addKeyField("id", 400).addKeyField("coll1", "staging")
+                .addField("coll2", i).addField("__op", "u").build(),
+            new JdbcChangeEventBuilder().addKeyField("id", 401).addKeyField("coll1", "staging")
+                .addField("__op", i == 0 ? "c" : "d").build()));
+      }
+      Assertions.assertEquals(1,
+          handle.createQuery("SELECT coll2 FROM public.upsert_with_pk WHERE id = 400").mapTo(Integer.class).one());
+      Assertions.assertEquals(0,
+          handle.createQuery("SELECT count(*) FROM public.upsert_with_pk WHERE id = 401").mapTo(Integer.class).one());
+
+      // caller managed transaction writing the table twice, rows of the first load aren't merged again
+      jdbi.useTransaction(tx -> {
+        for (int i = 0; i < 2; i++) {
+          writer.addToTable(tx, withPk, List.of(
+              new JdbcChangeEventBuilder().addKeyField("id", 402).addKeyField("coll1", "staging")
+                  .addField("coll2", i).addField("__op", "u").build()));
+        }
+      });
+      Assertions.assertEquals(List.of(1),
+          handle.createQuery("SELECT coll2 FROM public.upsert_with_pk WHERE id = 402").mapTo(Integer.class).list());
+    }
+  }
+
+  @Test
+  void stagingTableName() {
+    RelationalTable table = new RelationalTable("public", "tbl", Map.of("id", JDBCType.BIGINT), Map.of("id", 1));
+    Assertions.assertEquals("stg_tbl", table.stagingTableName(JdbcDialect.POSTGRES));
+    Assertions.assertEquals("#stg_tbl", table.stagingTableName(JdbcDialect.SQLSERVER));
+
+    final String longName = "a_very_long_table_name_reaching_the_postgresql_identifier_limit";
+    String staging1 = new RelationalTable("public", longName + "_1", Map.of("id", JDBCType.BIGINT), Map.of("id", 1))
+        .stagingTableName(JdbcDialect.POSTGRES);
+    String staging2 = new RelationalTable("public", longName + "_2", Map.of("id", JDBCType.BIGINT), Map.of("id", 1))
+        .stagingTableName(JdbcDialect.POSTGRES);
+    Assertions.assertEquals(RelationalTable.MAX_IDENTIFIER_BYTES, staging1.length());
+    Assertions.assertTrue(staging1.startsWith("stg_a_very_long_table_name"));
+    Assertions.assertNotEquals(staging1, staging2);
+  }
+
+}
@@ -8,15 +8,21 @@
 
 package io.debezium.server.jdbc.testresources;
 
+import io.debezium.server.jdbc.jdbi.LinkedHashMapCodec;
 import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.codec.CodecFactory;
+import org.jdbi.v3.core.qualifier.QualifiedType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -46,6 +52,21 @@ public class TargetPostgresqlDB implements QuarkusTestResourceLifecycleManager {
     }
   }
 
+  /**
+   * Starts the container when it's not running and returns jdbi using a connection pool of it, used by the writer tests.
+   */
+  public static Jdbi jdbi() {
+    container.start();
+    BasicDataSource dataSource = new BasicDataSource();
+    dataSource.setUrl(container.getJdbcUrl());
+    dataSource.setUsername(container.getUsername());
+    dataSource.setPassword(container.getPassword());
+    Jdbi jdbi = Jdbi.create(dataSource);
+    jdbi.registerCodecFactory(
+        CodecFactory.forSingleCodec(QualifiedType.of(LinkedHashMap.class), new LinkedHashMapCodec()));
+    return jdbi;
+  }
+
   @Override
   public Map<String, String> start() {
     container.start();